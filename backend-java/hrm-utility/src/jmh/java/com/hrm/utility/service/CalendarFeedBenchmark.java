@@ -0,0 +1,74 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.CalendarEvent;
+import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.repository.CalendarEventRepository;
+import com.hrm.utility.repository.HolidayRepository;
+import com.hrm.utility.repository.LeaveRequestRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalendarEventService.getEventsForUser: merging stored events with the holiday expansion,
+ * for a one-month view and for the default three-year window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarFeedBenchmark {
+
+    private static final long USER_ID = 7L;
+
+    @Param({"1000", "5000"})
+    int holidayCount;
+
+    @Param({"2000"})
+    int eventCount;
+
+    private CalendarEventService calendarEventService;
+
+    @Setup
+    public void setup() {
+        List<Holiday> holidays = SyntheticData.holidays(holidayCount);
+        List<CalendarEvent> events = SyntheticData.events(eventCount, USER_ID);
+        HolidayRepository holidayRepository = RepositoryStubs.stub(HolidayRepository.class,
+                Map.of("findAll", args -> holidays));
+        // Repository filtering happens in MySQL; the stub returns the stored events as-is
+        CalendarEventRepository eventRepository = RepositoryStubs.stub(CalendarEventRepository.class,
+                Map.of("findRelevantEventsInRange", args -> events));
+        HolidayCalendarIndex holidayCalendarIndex = new HolidayCalendarIndex(holidayRepository);
+        // Free/busy index is only touched on writes; never loaded here, so its repositories are not stubbed
+        FreeBusyService freeBusyService = new FreeBusyService(eventRepository,
+                RepositoryStubs.stub(LeaveRequestRepository.class, Map.of()),
+                new WorkingDayCalendar(holidayCalendarIndex, List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)), 30, 365);
+        calendarEventService = new CalendarEventService(eventRepository, holidayCalendarIndex, freeBusyService);
+    }
+
+    @Benchmark
+    public List<CalendarEvent> monthView() {
+        return calendarEventService.getEventsForUser(USER_ID, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28));
+    }
+
+    @Benchmark
+    public List<CalendarEvent> threeYearWindow() {
+        return calendarEventService.getEventsForUser(USER_ID, LocalDate.of(2025, 1, 1), LocalDate.of(2027, 12, 31));
+    }
+}
@@ -0,0 +1,62 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.repository.HolidayRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HolidayServiceImpl.getHolidaysInRange (the /api/holidays/check path) for a two-week leave
+ * draft and for a multi-year window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayRangeBenchmark {
+
+    @Param({"1000", "5000"})
+    int holidayCount;
+
+    private HolidayService holidayService;
+
+    @Setup
+    public void setup() {
+        List<Holiday> holidays = SyntheticData.holidays(holidayCount);
+        HolidayRepository repository = RepositoryStubs.stub(HolidayRepository.class,
+                Map.of("findAll", args -> holidays));
+        holidayService = new HolidayServiceImpl(repository, new HolidayCalendarIndex(repository));
+        holidayService.getHolidaysInRange(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 2)); // build the index
+    }
+
+    @Benchmark
+    public List<Holiday> twoWeekDraft() {
+        return holidayService.getHolidaysInRange(LocalDate.of(2026, 4, 20), LocalDate.of(2026, 5, 3));
+    }
+
+    @Benchmark
+    public List<Holiday> yearEndWrap() {
+        return holidayService.getHolidaysInRange(LocalDate.of(2025, 12, 20), LocalDate.of(2026, 1, 5));
+    }
+
+    @Benchmark
+    public List<Holiday> threeYears() {
+        return holidayService.getHolidaysInRange(LocalDate.of(2025, 1, 1), LocalDate.of(2027, 12, 31));
+    }
+}
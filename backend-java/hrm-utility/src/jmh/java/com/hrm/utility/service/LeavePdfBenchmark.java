@@ -0,0 +1,55 @@
+package com.hrm.utility.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DocumentServiceImpl leave-form rendering, buffered (generateLeavePdf) and streamed (writeLeavePdf).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeavePdfBenchmark {
+
+    private DocumentService documentService;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() {
+        documentService = new DocumentServiceImpl(new SimpleMeterRegistry());
+        data = new HashMap<>();
+        data.put("employeeName", "Nguyen Van An");
+        data.put("leaveType", "Annual Leave");
+        data.put("startDate", "2026-04-20");
+        data.put("endDate", "2026-04-24");
+        data.put("totalDays", "5");
+        data.put("reason", "Family trip to Da Nang, handover notes shared with the team in advance.");
+    }
+
+    @Benchmark
+    public byte[] generateLeavePdf() {
+        return documentService.generateLeavePdf(data);
+    }
+
+    @Benchmark
+    public void writeLeavePdf() {
+        documentService.writeLeavePdf(data, OutputStream.nullOutputStream());
+    }
+}
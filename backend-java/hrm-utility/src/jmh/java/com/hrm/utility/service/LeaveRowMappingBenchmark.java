@@ -0,0 +1,65 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.LeaveRequestResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping of the approval list: LeaveService.mapToDto was replaced by the
+ * LeaveRequestResponseDto constructor projection, which is what Hibernate calls per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaveRowMappingBenchmark {
+
+    @Param({"10000", "50000"})
+    int rowCount;
+
+    private Object[][] rows;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(SyntheticData.SEED);
+        rows = new Object[rowCount][];
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < rowCount; i++) {
+            LocalDate start = base.plusDays(random.nextInt(900));
+            int days = 1 + random.nextInt(5);
+            rows[i] = new Object[]{
+                    i + 1, "First" + (i % 500), "Last" + (i % 500), "avatars/" + (i % 500) + ".png",
+                    1 + random.nextInt(6), "Type " + random.nextInt(6), start, start.plusDays(days - 1),
+                    BigDecimal.valueOf(days), random.nextBoolean() ? "Approved" : "Pending",
+                    LocalDateTime.of(start.minusDays(7), java.time.LocalTime.NOON)
+            };
+        }
+    }
+
+    @Benchmark
+    public void projectRows(Blackhole bh) {
+        for (Object[] r : rows) {
+            bh.consume(new LeaveRequestResponseDto((Integer) r[0], (String) r[1], (String) r[2], (String) r[3],
+                    (Integer) r[4], (String) r[5], (LocalDate) r[6], (LocalDate) r[7],
+                    (BigDecimal) r[8], (String) r[9], (LocalDateTime) r[10]));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.CalendarEvent;
+import com.hrm.utility.entity.Holiday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic datasets for the benchmarks (fixed seed, realistic shapes).
+ */
+final class SyntheticData {
+
+    static final long SEED = 42L;
+
+    private SyntheticData() {
+    }
+
+    // ~30% recurring holidays, the rest one-off dates spread over 2015..2035
+    static List<Holiday> holidays(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Holiday> holidays = new ArrayList<>(count);
+        LocalDate base = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < count; i++) {
+            holidays.add(Holiday.builder()
+                    .holidayID((long) i + 1)
+                    .name("Holiday " + i)
+                    .description("Synthetic holiday " + i)
+                    .holidayDate(base.plusDays(random.nextInt(365 * 20)))
+                    .isRecurring(random.nextInt(10) < 3)
+                    .build());
+        }
+        return holidays;
+    }
+
+    static List<CalendarEvent> events(int count, long userId) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<CalendarEvent> events = new ArrayList<>(count);
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        CalendarEvent.EventType[] types = CalendarEvent.EventType.values();
+        for (int i = 0; i < count; i++) {
+            LocalDate day = base.plusDays(random.nextInt(365 * 3));
+            events.add(CalendarEvent.builder()
+                    .eventID((long) i + 1)
+                    .title("Event " + i)
+                    .startTime(day.atTime(9, 0))
+                    .endTime(day.atTime(10, 0))
+                    .eventType(types[random.nextInt(types.length)])
+                    .userID(userId)
+                    .createdBy(userId)
+                    .build());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hrm.utility.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters and raw latency samples for one endpoint. Samples are kept in full (a one-minute run
+ * at a few hundred rps is well under a megabyte) and sorted once for the report.
+ */
+final class EndpointStats {
+
+    final String name;
+    final double targetRps;
+    final LongAdder ok = new LongAdder();
+    final LongAdder clientErrors = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    private long[] latencies = new long[1024];
+    private int size;
+
+    EndpointStats(String name, double targetRps) {
+        this.name = name;
+        this.targetRps = targetRps;
+    }
+
+    synchronized void record(long latencyNanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+    }
+
+    synchronized long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Nearest-rank percentile, in milliseconds
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1_000_000.0;
+    }
+}
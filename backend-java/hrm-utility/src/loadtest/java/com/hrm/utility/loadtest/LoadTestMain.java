@@ -0,0 +1,221 @@
+package com.hrm.utility.loadtest;
+
+import com.hrm.utility.HrmUtilityApplication;
+import com.hrm.utility.service.ApprovalCounterService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-loop load test for the hrm-utility REST API, fully offline: boots {@link HrmUtilityApplication}
+ * on an in-memory H2 database (MySQL mode) on a random port, loads a synthetic dataset, then fires
+ * each endpoint of the mix at a fixed arrival rate for the warmup + measured window.
+ * <p>
+ * Latency is measured from the scheduled send time, not the actual one, so a stalled server shows up
+ * as queueing delay instead of silently lowering the offered load (no coordinated omission).
+ * <p>
+ * Options (key=value): {@code duration=60 warmup=10 mix=approvals:40,holidays-check:50,...
+ * employees=2000 managers=50 requests=20000 holidays=60 events=20000 max-in-flight=1000 client-threads=16};
+ * arguments starting with {@code --} are passed to Spring, e.g. {@code --hrm.documents.export.threads=8}.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>(embeddedDatabaseArgs());
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                springArgs.add(arg);
+            } else if (arg.contains("=")) {
+                options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected key=value or --spring.property=value, got: " + arg);
+            }
+        }
+
+        SyntheticSeed seed = new SyntheticSeed(
+                intOption(options, "employees", 2000),
+                intOption(options, "managers", 50),
+                intOption(options, "requests", 20000),
+                intOption(options, "holidays", 60),
+                intOption(options, "events", 20000));
+        Map<String, Function<String, HttpRequest>> scenarios = Scenarios.all(seed);
+        List<EndpointStats> mix = parseMix(options.getOrDefault("mix", Scenarios.DEFAULT_MIX), scenarios);
+        int warmupSeconds = intOption(options, "warmup", 10);
+        int durationSeconds = intOption(options, "duration", 60);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HrmUtilityApplication.class)
+                .logStartupInfo(false)
+                .run(springArgs.toArray(new String[0]));
+        try {
+            long seedStart = System.nanoTime();
+            seed.load(context.getBean(JdbcTemplate.class));
+            // Bộ đếm đã nạp lúc khởi động (DB rỗng), nạp lại sau khi seed
+            context.getBean(ApprovalCounterService.class).reload();
+            System.out.printf("Seeded %d employees, %d leave requests, %d holidays, %d events in %d ms%n",
+                    seed.employees, seed.leaveRequests, seed.holidays, seed.events,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            System.out.printf("Driving %s for %ds warmup + %ds measured%n", baseUrl, warmupSeconds, durationSeconds);
+            run(baseUrl, scenarios, mix, warmupSeconds, durationSeconds,
+                    intOption(options, "max-in-flight", 1000), intOption(options, "client-threads", 16));
+            report(mix, durationSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<String> embeddedDatabaseArgs() {
+        return List.of(
+                "--spring.datasource.url=jdbc:h2:mem:hrm-loadtest;MODE=MySQL;DATABASE_TO_LOWER=FALSE;"
+                        + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    private static void run(String baseUrl, Map<String, Function<String, HttpRequest>> scenarios, List<EndpointStats> mix,
+                            int warmupSeconds, int durationSeconds, int maxInFlight, int clientThreads)
+            throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(clientThreads);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientExecutor)
+                .build();
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Thread> drivers = new ArrayList<>();
+        for (EndpointStats stats : mix) {
+            Function<String, HttpRequest> factory = scenarios.get(stats.name);
+            Thread driver = new Thread(() -> drive(client, baseUrl, factory, stats, start, measureFrom, end, maxInFlight),
+                    "load-" + stats.name);
+            driver.setDaemon(true);
+            driver.start();
+            drivers.add(driver);
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+
+        // Chờ các request còn đang chạy (tối đa bằng timeout của request)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(35);
+        while (mix.stream().anyMatch(s -> s.inFlight.get() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        clientExecutor.shutdownNow();
+    }
+
+    // Một thread cho mỗi endpoint: gửi đúng nhịp start + i * period, không chờ response (open loop)
+    private static void drive(HttpClient client, String baseUrl, Function<String, HttpRequest> factory, EndpointStats stats,
+                              long start, long measureFrom, long end, int maxInFlight) {
+        long period = (long) (1_000_000_000L / stats.targetRps);
+        for (long i = 0; ; i++) {
+            long intended = start + i * period;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            if (stats.inFlight.get() >= maxInFlight) {
+                // Server (hoặc client) đã bão hòa: không xếp thêm hàng, ghi nhận là dropped
+                if (measured) {
+                    stats.dropped.increment();
+                }
+                continue;
+            }
+            stats.inFlight.incrementAndGet();
+            client.sendAsync(factory.apply(baseUrl), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intended;
+                        stats.inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        if (error != null || response.statusCode() >= 500) {
+                            stats.errors.increment();
+                        } else if (response.statusCode() >= 400) {
+                            stats.clientErrors.increment();
+                        } else {
+                            stats.ok.increment();
+                        }
+                        stats.record(latency);
+                    });
+        }
+    }
+
+    private static void report(List<EndpointStats> mix, int durationSeconds) {
+        String header = String.format("%-20s %9s %9s %9s %9s %9s %9s %9s %9s %7s %7s %8s",
+                "endpoint", "target/s", "done/s", "requests", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+                "4xx", "errors", "dropped");
+        System.out.println();
+        System.out.println(header);
+        System.out.println("-".repeat(header.length()));
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (EndpointStats stats : mix) {
+            long[] sorted = stats.sortedLatencies();
+            long requests = stats.ok.sum() + stats.clientErrors.sum() + stats.errors.sum();
+            totalRequests += requests;
+            totalErrors += stats.errors.sum();
+            System.out.printf("%-20s %9.1f %9.1f %9d %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %8d%n",
+                    stats.name, stats.targetRps, (double) requests / durationSeconds, requests,
+                    EndpointStats.percentileMillis(sorted, 50), EndpointStats.percentileMillis(sorted, 90),
+                    EndpointStats.percentileMillis(sorted, 99), EndpointStats.percentileMillis(sorted, 99.9),
+                    EndpointStats.percentileMillis(sorted, 100),
+                    stats.clientErrors.sum(), stats.errors.sum(), stats.dropped.sum());
+        }
+        System.out.println("-".repeat(header.length()));
+        System.out.printf("total: %d requests, %.1f req/s, %d errors%n",
+                totalRequests, (double) totalRequests / durationSeconds, totalErrors);
+    }
+
+    private static List<EndpointStats> parseMix(String mix, Map<String, Function<String, HttpRequest>> scenarios) {
+        List<EndpointStats> result = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !scenarios.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Bad mix entry '" + entry + "', expected name:rps with name in " + scenarios.keySet());
+            }
+            double rps = Double.parseDouble(parts[1]);
+            if (rps > 0) {
+                result.add(new EndpointStats(parts[0], rps));
+            }
+        }
+        return result;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        return options.containsKey(key) ? Integer.parseInt(options.get(key)) : defaultValue;
+    }
+}
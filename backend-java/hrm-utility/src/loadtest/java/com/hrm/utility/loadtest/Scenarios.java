@@ -0,0 +1,73 @@
+package com.hrm.utility.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Request factories for the endpoint mix, keyed by the names used in {@code mix=name:rps,...}.
+ * Ids and date windows are drawn at random from the ranges the synthetic seed populated.
+ */
+final class Scenarios {
+
+    static final String DEFAULT_MIX = "approvals:40,approvals-counters:20,approve:2,holidays-check:50,calendar-events:20,documents-pdf:5";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final LocalDate DATA_START = LocalDate.of(2025, 1, 1);
+
+    private static final String LEAVE_PDF_BODY = "{\"employeeName\":\"Nguyen Van An\",\"leaveType\":\"Annual Leave\"," +
+            "\"startDate\":\"2026-04-20\",\"endDate\":\"2026-04-24\",\"totalDays\":\"5\"," +
+            "\"reason\":\"Family trip to Da Nang, handover notes shared with the team in advance.\"}";
+
+    private Scenarios() {
+    }
+
+    static Map<String, Function<String, HttpRequest>> all(SyntheticSeed seed) {
+        Map<String, Function<String, HttpRequest>> scenarios = new LinkedHashMap<>();
+        scenarios.put("approvals", base -> get(base + "/api/approvals/pending/page?limit=50&managerId=" + manager(seed)));
+        scenarios.put("approvals-all", base -> get(base + "/api/approvals/all/page?limit=50&managerId=" + manager(seed)));
+        scenarios.put("approvals-counters", base -> get(base + "/api/approvals/counters?managerId=" + manager(seed)));
+        // Đơn ngẫu nhiên: phần lớn sẽ là 409 sau một thời gian, được tính vào cột 4xx chứ không phải lỗi
+        scenarios.put("approve", base -> post(base + "/api/approvals/" + (1 + random().nextInt(seed.leaveRequests)) + "/approve", "{}"));
+        scenarios.put("holidays-check", base -> {
+            LocalDate start = DATA_START.plusDays(random().nextInt(700));
+            return get(base + "/api/holidays/check?start=" + start + "&end=" + start.plusDays(random().nextInt(1, 31)));
+        });
+        scenarios.put("calendar-events", base -> {
+            LocalDate from = DATA_START.plusDays(random().nextInt(700));
+            return get(base + "/api/calendar/events?userId=" + employee(seed) + "&from=" + from + "&to=" + from.plusMonths(1));
+        });
+        scenarios.put("calendar-feed", base -> get(base + "/api/calendar/events/feed.ics?userId=" + employee(seed)));
+        scenarios.put("documents-pdf", base -> post(base + "/api/documents/generate/leave-pdf", LEAVE_PDF_BODY));
+        scenarios.put("documents-job", base -> post(base + "/api/documents/jobs/leave-pdf", LEAVE_PDF_BODY));
+        return scenarios;
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static int manager(SyntheticSeed seed) {
+        return 1 + random().nextInt(seed.managers);
+    }
+
+    private static int employee(SyntheticSeed seed) {
+        return 1 + random().nextInt(seed.employees);
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
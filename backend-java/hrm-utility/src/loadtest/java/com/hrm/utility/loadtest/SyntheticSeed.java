@@ -0,0 +1,97 @@
+package com.hrm.utility.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the in-memory database with a deterministic synthetic dataset (fixed seed) through JDBC batches.
+ * Employees 1..managers act as managers; every other employee reports to one of them.
+ */
+final class SyntheticSeed {
+
+    private static final long SEED = 42L;
+    private static final int BATCH = 1000;
+    private static final String[] LEAVE_TYPES = {"Annual Leave", "Sick Leave", "Unpaid Leave", "Maternity Leave", "Wedding Leave"};
+
+    final int employees;
+    final int managers;
+    final int leaveRequests;
+    final int holidays;
+    final int events;
+
+    SyntheticSeed(int employees, int managers, int leaveRequests, int holidays, int events) {
+        this.employees = employees;
+        this.managers = managers;
+        this.leaveRequests = leaveRequests;
+        this.holidays = holidays;
+        this.events = events;
+    }
+
+    void load(JdbcTemplate jdbc) {
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= employees; i++) {
+            rows.add(new Object[]{i, "First" + i, "Last" + i, null});
+        }
+        batch(jdbc, "INSERT INTO Employees (EmployeeID, FirstName, LastName, AvatarUrl) VALUES (?, ?, ?, ?)", rows);
+
+        for (int i = 0; i < LEAVE_TYPES.length; i++) {
+            rows.add(new Object[]{i + 1, LEAVE_TYPES[i]});
+        }
+        batch(jdbc, "INSERT INTO LeaveTypes (LeaveTypeID, Name) VALUES (?, ?)", rows);
+
+        // ~30% Pending, ~55% Approved, ~15% Rejected, start dates spread over 2025..2026
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < leaveRequests; i++) {
+            int employeeId = 1 + random.nextInt(employees);
+            int managerId = 1 + employeeId % managers;
+            LocalDate start = base.plusDays(random.nextInt(730));
+            int days = 1 + random.nextInt(5);
+            int roll = random.nextInt(100);
+            String status = roll < 30 ? "Pending" : roll < 85 ? "Approved" : "Rejected";
+            rows.add(new Object[]{managerId, employeeId, 1 + random.nextInt(LEAVE_TYPES.length),
+                    Date.valueOf(start), Date.valueOf(start.plusDays(days - 1)), BigDecimal.valueOf(days),
+                    "Synthetic request " + i, status, Timestamp.valueOf(start.minusDays(7).atTime(9, 0).plusMinutes(i % 480)), 0});
+        }
+        batch(jdbc, "INSERT INTO LeaveRequests (ManagerID, EmployeeID, LeaveTypeID, StartDate, EndDate, TotalDays, " +
+                "Reason, Status, RequestedDate, Version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < holidays; i++) {
+            boolean recurring = random.nextInt(10) < 3;
+            LocalDate date = recurring ? LocalDate.of(2020, 1, 1).plusDays(random.nextInt(365))
+                    : base.plusDays(random.nextInt(730));
+            rows.add(new Object[]{"Holiday " + i, Date.valueOf(date), recurring, "Synthetic holiday " + i, Timestamp.valueOf(now)});
+        }
+        batch(jdbc, "INSERT INTO Holidays (Name, HolidayDate, IsRecurring, Description, CreatedAt) VALUES (?, ?, ?, ?, ?)", rows);
+
+        // Mostly personal events, a few company-wide HOLIDAY events visible to everyone
+        for (int i = 0; i < events; i++) {
+            int roll = random.nextInt(100);
+            String type = roll < 70 ? "PERSONAL" : roll < 95 ? "DEADLINE" : "HOLIDAY";
+            long userId = 1 + random.nextInt(employees);
+            LocalDateTime start = base.atTime(8, 0).plusDays(random.nextInt(730)).plusHours(random.nextInt(10));
+            rows.add(new Object[]{"Event " + i, "Synthetic event " + i, Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusHours(1 + random.nextInt(3))), type, userId, userId, "#3b82f6", Timestamp.valueOf(now)});
+        }
+        batch(jdbc, "INSERT INTO CalendarEvents (Title, Description, StartTime, EndTime, EventType, UserID, CreatedBy, " +
+                "Color, CreatedAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Ghi theo lô rồi xóa danh sách để dùng lại cho bảng sau
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+        rows.clear();
+    }
+}
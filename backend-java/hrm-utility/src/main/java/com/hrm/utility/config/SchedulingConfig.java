@@ -0,0 +1,10 @@
+package com.hrm.utility.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Bật @Scheduled cho các tác vụ nền (dọn spool job tài liệu, ...)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,11 +1,25 @@
 package com.hrm.utility.controller;
 
+import com.hrm.utility.entity.BatchDecisionRequestDto;
+import com.hrm.utility.entity.BatchDecisionResultDto;
 import com.hrm.utility.entity.LeaveRequestResponseDto;
+import com.hrm.utility.service.ApprovalAuditService;
+import com.hrm.utility.service.ApprovalCounterService;
+import com.hrm.utility.service.ApprovalExportService;
+import com.hrm.utility.service.ApprovalStreamService;
 import com.hrm.utility.service.LeaveService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -14,9 +28,26 @@ import java.util.HashMap;
 @RequestMapping("/api/approvals")
 public class ApprovalController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_REQUEST_KEY_LENGTH = 64; // = LeaveRequests.DecisionKey
+    private static final int MAX_COVERAGE_DAYS = 366;
+
     @Autowired
     private LeaveService leaveService;
 
+    @Autowired
+    private ApprovalExportService approvalExportService;
+
+    @Autowired
+    private ApprovalCounterService approvalCounterService;
+
+    @Autowired
+    private ApprovalStreamService approvalStreamService;
+
+    @Autowired
+    private ApprovalAuditService approvalAuditService;
+
     // API: GET http://localhost:8081/api/approvals/pending?managerId=2
     @GetMapping("/pending")
     public ResponseEntity<List<LeaveRequestResponseDto>> getPendingRequests(
@@ -39,26 +70,110 @@ public class ApprovalController {
         return ResponseEntity.ok(result);
     }
 
+    // API: GET http://localhost:8081/api/approvals/counters?managerId=2
+    // Badge: đọc từ bộ đếm trong RAM, không query DB
+    @GetMapping("/counters")
+    public ResponseEntity<Map<String, Object>> getCounters(
+            @RequestParam Integer managerId,
+            @RequestParam(defaultValue = "Pending") String status,
+            @RequestParam(required = false) Integer leaveTypeId) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("managerId", managerId);
+        response.put("status", status);
+        response.put("total", approvalCounterService.count(managerId, status, leaveTypeId));
+        response.put("byLeaveType", approvalCounterService.countByLeaveType(managerId, status));
+        return ResponseEntity.ok(response);
+    }
+
+    // API: GET http://localhost:8081/api/approvals/coverage?managerId=2&from=2026-01-01&to=2026-12-31
+    // Heatmap: mỗi ngày có bao nhiêu người trong team đã được duyệt nghỉ / đang chờ duyệt
+    @GetMapping("/coverage")
+    public ResponseEntity<?> getTeamCoverage(
+            @RequestParam Integer managerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return badRequest("'to' must not be before 'from'");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_COVERAGE_DAYS) {
+            return badRequest("Range must be at most " + MAX_COVERAGE_DAYS + " days");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("managerId", managerId);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("days", leaveService.getTeamCoverage(managerId, from, to));
+        return ResponseEntity.ok(response);
+    }
+
+    // API: GET http://localhost:8081/api/approvals/stream?managerId=2  (text/event-stream)
+    // Đẩy thay đổi của hàng đợi duyệt (approve/reject/đơn mới) thay vì poll /pending
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamQueue(@RequestParam Integer managerId) {
+        return approvalStreamService.subscribe(managerId)
+                .map(ResponseEntity::ok)
+                // Vượt giới hạn kết nối: client thử lại sau
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
+    // API: GET http://localhost:8081/api/approvals/pending/page?managerId=2&limit=50&cursor=...
+    @GetMapping("/pending/page")
+    public ResponseEntity<?> getPendingRequestsPage(
+            @RequestParam Integer managerId,
+            @RequestParam(required = false) Integer leaveTypeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(leaveService.getPendingApprovalsPage(managerId, leaveTypeId, cursor, clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    // API: GET http://localhost:8081/api/approvals/all/page?managerId=2&limit=50&cursor=...
+    // Trả về { items, nextCursor }; truyền nextCursor vào lần gọi sau để lấy trang kế tiếp
+    @GetMapping("/all/page")
+    public ResponseEntity<?> getAllRequestsPage(
+            @RequestParam Integer managerId,
+            @RequestParam(required = false) Integer leaveTypeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(leaveService.getAllApprovalsPage(managerId, leaveTypeId, cursor, clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
     // API: POST http://localhost:8081/api/approvals/{id}/approve
     @PostMapping("/{id}/approve")
     public ResponseEntity<Map<String, String>> approveRequest(
             @PathVariable Integer id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String requestKey,
             @RequestBody(required = false) Map<String, String> body) {
 
+        if (requestKey != null && requestKey.length() > MAX_REQUEST_KEY_LENGTH) {
+            return badRequest("Idempotency-Key must be at most " + MAX_REQUEST_KEY_LENGTH + " characters");
+        }
         String note = (body != null && body.containsKey("note")) ? body.get("note") : "";
-        leaveService.approveRequest(id, note);
-
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Request approved successfully");
-        return ResponseEntity.ok(response);
+        BatchDecisionResultDto result = leaveService.approveRequest(id, note, requestKey);
+        return decisionResponse(result, "Request approved successfully");
     }
 
     // API: POST http://localhost:8081/api/approvals/{id}/reject
     @PostMapping("/{id}/reject")
     public ResponseEntity<Map<String, String>> rejectRequest(
             @PathVariable Integer id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String requestKey,
             @RequestBody Map<String, String> body) {
 
+        if (requestKey != null && requestKey.length() > MAX_REQUEST_KEY_LENGTH) {
+            return badRequest("Idempotency-Key must be at most " + MAX_REQUEST_KEY_LENGTH + " characters");
+        }
         String note = body.get("note");
         if (note == null || note.trim().isEmpty()) {
             Map<String, String> error = new HashMap<>();
@@ -66,10 +181,111 @@ public class ApprovalController {
             return ResponseEntity.badRequest().body(error);
         }
 
-        leaveService.rejectRequest(id, note);
+        BatchDecisionResultDto result = leaveService.rejectRequest(id, note, requestKey);
+        return decisionResponse(result, "Request rejected successfully");
+    }
+
+    // API: POST http://localhost:8081/api/approvals/batch
+    // Body: { "ids": [1, 2, 3], "decision": "APPROVE" | "REJECT", "note": "..." }
+    @PostMapping("/batch")
+    public ResponseEntity<?> decideBatch(@RequestHeader(value = "Idempotency-Key", required = false) String requestKey,
+                                         @RequestBody BatchDecisionRequestDto body) {
+        if (requestKey != null && requestKey.length() > MAX_REQUEST_KEY_LENGTH) {
+            return badRequest("Idempotency-Key must be at most " + MAX_REQUEST_KEY_LENGTH + " characters");
+        }
+        if (body.getIds() == null || body.getIds().isEmpty()) {
+            return badRequest("ids is required");
+        }
+        if (body.getIds().size() > MAX_BATCH_SIZE) {
+            return badRequest("At most " + MAX_BATCH_SIZE + " requests per batch");
+        }
+
+        String newStatus;
+        if ("APPROVE".equalsIgnoreCase(body.getDecision())) {
+            newStatus = "Approved";
+        } else if ("REJECT".equalsIgnoreCase(body.getDecision())) {
+            if (body.getNote() == null || body.getNote().trim().isEmpty()) {
+                return badRequest("Note is required for rejection");
+            }
+            newStatus = "Rejected";
+        } else {
+            return badRequest("decision must be APPROVE or REJECT");
+        }
+
+        String note = body.getNote() != null ? body.getNote() : "";
+        List<BatchDecisionResultDto> results = leaveService.decideBatch(body.getIds(), newStatus, note, requestKey);
 
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", results);
+        response.put("updated", results.stream().filter(r -> newStatus.equals(r.getOutcome())).count());
+        return ResponseEntity.ok(response);
+    }
+
+    // API: GET http://localhost:8081/api/approvals/audit?leaveRequestId=12
+    // API: GET http://localhost:8081/api/approvals/audit?managerId=2&from=2026-01-01&to=2026-01-31&limit=100
+    // Nhật ký duyệt/từ chối, mới nhất trước (bản ghi xuất hiện sau khi writer nền ghi xong)
+    @GetMapping("/audit")
+    public ResponseEntity<?> getAuditTrail(
+            @RequestParam(required = false) Integer leaveRequestId,
+            @RequestParam(required = false) Integer managerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (leaveRequestId == null && managerId == null) {
+            return badRequest("leaveRequestId or managerId is required");
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return badRequest("'to' must not be before 'from'");
+        }
+        return ResponseEntity.ok(approvalAuditService.findTrail(leaveRequestId, managerId, from, to, clampLimit(limit)));
+    }
+
+    // API: GET http://localhost:8081/api/approvals/export?from=2026-01-01&to=2026-12-31&managerId=2&leaveTypeId=1
+    // File Excel (.xlsx) được stream thẳng vào response
+    @GetMapping("/export")
+    public void exportRequests(
+            @RequestParam(required = false) Integer managerId,
+            @RequestParam(required = false) Integer leaveTypeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        if (to.isBefore(from)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "'to' must not be before 'from'");
+            return;
+        }
+
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=leave_requests_" + from + "_" + to + ".xlsx");
+        approvalExportService.writeXlsx(managerId, leaveTypeId, from, to, response.getOutputStream());
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // 404 nếu không có đơn, 409 nếu đơn đã được duyệt/từ chối bởi người khác (không ghi đè)
+    private static ResponseEntity<Map<String, String>> decisionResponse(BatchDecisionResultDto result, String successMessage) {
         Map<String, String> response = new HashMap<>();
-        response.put("message", "Request rejected successfully");
+        if ("NOT_FOUND".equals(result.getOutcome())) {
+            response.put("message", "Leave request not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        if ("NOT_PENDING".equals(result.getOutcome())) {
+            // currentStatus null: approver khác vừa duyệt đơn trong lúc request này đang chạy
+            response.put("message", result.getCurrentStatus() != null
+                    ? "Leave request is already " + result.getCurrentStatus()
+                    : "Leave request was just decided by another approver");
+            response.put("currentStatus", result.getCurrentStatus());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", successMessage);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<Map<String, String>> badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.badRequest().body(error);
+    }
+}
@@ -2,11 +2,24 @@ package com.hrm.utility.controller;
 
 import com.hrm.utility.entity.CalendarEvent;
 import com.hrm.utility.service.CalendarEventService;
+import com.hrm.utility.service.CalendarIcsService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/calendar/events")
@@ -14,15 +27,67 @@ import java.util.List;
 public class CalendarEventController {
 
     private final CalendarEventService calendarEventService;
+    private final CalendarIcsService calendarIcsService;
 
     @GetMapping
-    public ResponseEntity<List<CalendarEvent>> getEvents(@RequestParam Long userId) {
-        return ResponseEntity.ok(calendarEventService.getEventsForUser(userId));
+    public ResponseEntity<List<CalendarEvent>> getEvents(
+            @RequestParam Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // 304 Not Modified nếu feed của user chưa đổi (không query DB).
+        // Năm hiện tại nằm trong ETag vì cửa sổ mặc định phụ thuộc vào nó.
+        String etag = "\"calendar-" + userId + "-" + calendarEventService.getFeedVersion(userId) + "-"
+                + (from != null && to != null ? from + "-" + to : "y" + LocalDate.now().getYear()) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        if (from == null || to == null) {
+            return ResponseEntity.ok(calendarEventService.getEventsForUser(userId));
+        }
+        return ResponseEntity.ok(calendarEventService.getEventsForUser(userId, from, to));
+    }
+
+    // API: GET http://localhost:8081/api/calendar/events/feed.ics?userId=1
+    // Feed iCalendar để subscribe từ Outlook/Google, stream thẳng vào response
+    @GetMapping("/feed.ics")
+    public void getIcsFeed(@RequestParam Long userId, WebRequest request, HttpServletResponse response) throws IOException {
+        if (request.checkNotModified("\"ics-" + userId + "-" + calendarEventService.getFeedVersion(userId) + "\"")) {
+            return;
+        }
+        response.setContentType("text/calendar;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=leaveflow.ics");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        calendarIcsService.writeFeed(userId, writer);
     }
 
+    // Sự kiện lặp lại: gửi kèm recurrenceRule (vd. "FREQ=WEEKLY;BYDAY=MO;UNTIL=20261231") và recurrenceExceptions
     @PostMapping
-    public ResponseEntity<CalendarEvent> createEvent(@RequestBody CalendarEvent event) {
-        return ResponseEntity.ok(calendarEventService.saveEvent(event));
+    public ResponseEntity<?> createEvent(@RequestBody CalendarEvent event) {
+        try {
+            return ResponseEntity.ok(calendarEventService.saveEvent(event));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // API: POST http://localhost:8081/api/calendar/events/5/exceptions?date=2026-03-09
+    // Bỏ một lần xảy ra của sự kiện lặp lại (các lần khác giữ nguyên)
+    @PostMapping("/{id}/exceptions")
+    public ResponseEntity<Void> addRecurrenceException(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!calendarEventService.addRecurrenceException(id, date)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{id}")
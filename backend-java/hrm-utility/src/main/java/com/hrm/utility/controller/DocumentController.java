@@ -1,13 +1,32 @@
 package com.hrm.utility.controller;
 
+import com.hrm.utility.entity.LeaveFormDataDto;
+import com.hrm.utility.service.DocumentJob;
+import com.hrm.utility.service.DocumentJobService;
+import com.hrm.utility.service.DocumentRenderLimiter;
 import com.hrm.utility.service.DocumentService;
+import com.hrm.utility.service.LeaveFormExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -15,14 +34,119 @@ import java.util.Map;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final LeaveFormExportService leaveFormExportService;
+    private final DocumentJobService documentJobService;
+    private final DocumentRenderLimiter documentRenderLimiter;
 
     @PostMapping("/generate/leave-pdf")
-    public ResponseEntity<byte[]> generateLeavePdf(@RequestBody Map<String, Object> data) {
-        byte[] pdfBytes = documentService.generateLeavePdf(data);
+    public void generateLeavePdf(@RequestBody Map<String, Object> data, HttpServletResponse response) throws IOException {
+        // Giới hạn số PDF render đồng thời; quá tải thì trả 503 ngay (client thử lại hoặc dùng /jobs/leave-pdf)
+        if (!documentRenderLimiter.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(documentRenderLimiter.getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many documents being generated, please retry later");
+            return;
+        }
+        byte[] pdf;
+        try {
+            // Render vào bộ nhớ (đơn nghỉ phép chỉ vài KB) rồi trả slot ngay: client tải chậm không giữ slot render
+            pdf = documentService.generateLeavePdf(data);
+        } finally {
+            documentRenderLimiter.release();
+        }
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=leave_application.pdf");
+        response.setContentLength(pdf.length);
+        response.getOutputStream().write(pdf);
+    }
+
+    // API: GET http://localhost:8081/api/documents/export/leave-pdfs?from=2026-01-01&to=2026-01-31&status=Approved&managerId=2
+    // Trả về file ZIP chứa đơn nghỉ phép PDF, stream dần từng file khi render xong
+    @GetMapping("/export/leave-pdfs")
+    public void exportLeavePdfs(
+            @RequestParam(required = false) Integer managerId,
+            @RequestParam(defaultValue = "Approved") String status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        if (to.isBefore(from)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "'to' must not be before 'from'");
+            return;
+        }
+
+        List<LeaveFormDataDto> forms = leaveFormExportService.findForms(managerId, status, from, to);
+
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=leave_applications_" + from + "_" + to + ".zip");
+        leaveFormExportService.writeZip(forms, response.getOutputStream());
+    }
+
+    // ---- Async jobs: POST trả về jobId ngay, render chạy nền ----
+    // API: POST http://localhost:8081/api/documents/jobs/leave-pdf
+    @PostMapping("/jobs/leave-pdf")
+    public ResponseEntity<Map<String, Object>> submitLeavePdfJob(@RequestBody Map<String, Object> data) {
+        try {
+            DocumentJob job = documentJobService.submitLeavePdf(data);
+            return ResponseEntity.accepted().body(toJobResponse(job));
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", "Document queue is full, please retry later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        }
+    }
+
+    // API: GET http://localhost:8081/api/documents/jobs/{jobId}
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        return documentJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(toJobResponse(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // API: GET http://localhost:8081/api/documents/jobs/{jobId}/download
+    @GetMapping("/jobs/{jobId}/download")
+    public void downloadJob(@PathVariable String jobId, HttpServletResponse response) throws IOException {
+        Optional<DocumentJob> found = documentJobService.getJob(jobId);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        DocumentJob job = found.get();
+        if (job.getStatus() != DocumentJob.Status.DONE) {
+            response.sendError(HttpServletResponse.SC_CONFLICT, "Job is " + job.getStatus());
+            return;
+        }
+
+        // Mở file trước: job có thể vừa bị dọn theo TTL; file đã mở vẫn đọc được dù bị xóa sau đó
+        SeekableByteChannel channel;
+        try {
+            channel = Files.newByteChannel(job.getResultPath());
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_GONE, "Job result has expired");
+            return;
+        }
+        try (InputStream in = Channels.newInputStream(channel)) {
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName());
+            response.setContentLengthLong(channel.size());
+            in.transferTo(response.getOutputStream());
+        }
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=leave_application.pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfBytes);
+    private static Map<String, Object> toJobResponse(DocumentJob job) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("jobId", job.getJobId());
+        body.put("status", job.getStatus());
+        body.put("createdAt", job.getCreatedAt());
+        if (job.getCompletedAt() != null) {
+            body.put("completedAt", job.getCompletedAt());
+        }
+        if (job.getStatus() == DocumentJob.Status.DONE) {
+            body.put("downloadUrl", "/api/documents/jobs/" + job.getJobId() + "/download");
+        }
+        if (job.getError() != null) {
+            body.put("error", job.getError());
+        }
+        return body;
     }
 }
@@ -0,0 +1,136 @@
+package com.hrm.utility.controller;
+
+import com.hrm.utility.service.FreeBusyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Trả lời từ index trong bộ nhớ: sự kiện và đơn duyệt qua service này cập nhật ngay sau commit, còn nghỉ phép
+// bị hủy/thu hồi ở service khác vẫn hiện là bận tới lần đồng bộ kế tiếp (hrm.freebusy.leave-refresh-ms, mặc định 5 phút)
+@RestController
+@RequestMapping("/api/freebusy")
+@RequiredArgsConstructor
+public class FreeBusyController {
+
+    private static final int MAX_USERS = 100;
+    private static final int MAX_WINDOW_DAYS = 92;
+    private static final int MAX_SLOTS = 200;
+
+    private final FreeBusyService freeBusyService;
+
+    // API: GET http://localhost:8081/api/freebusy/busy?userIds=1,2&from=2026-03-02T00:00&to=2026-03-07T00:00
+    // Khoảng bận (đã gộp) của từng user trong cửa sổ
+    @GetMapping("/busy")
+    public ResponseEntity<?> getBusy(
+            @RequestParam List<Long> userIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        String invalid = validate(userIds, from, to);
+        if (invalid != null) {
+            return badRequest(invalid);
+        }
+        try {
+            return ResponseEntity.ok(freeBusyService.getBusy(userIds, from, to));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (IllegalStateException e) {
+            return unavailable(e.getMessage());
+        }
+    }
+
+    // API: GET http://localhost:8081/api/freebusy/check?userIds=1,2,3&from=2026-03-02T09:00&to=2026-03-02T10:00
+    // Ai bận / ai rảnh trong khung giờ (vd. trước khi đặt lịch họp)
+    @GetMapping("/check")
+    public ResponseEntity<?> check(
+            @RequestParam List<Long> userIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        String invalid = validate(userIds, from, to);
+        if (invalid != null) {
+            return badRequest(invalid);
+        }
+        try {
+            List<Long> busy = freeBusyService.findBusyUsers(userIds, from, to);
+            List<Long> free = new ArrayList<>(userIds);
+            free.removeAll(busy);
+            Map<String, Object> response = new HashMap<>();
+            response.put("busyUserIds", busy);
+            response.put("freeUserIds", free);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (IllegalStateException e) {
+            return unavailable(e.getMessage());
+        }
+    }
+
+    // API: GET http://localhost:8081/api/freebusy/slots?userIds=1,2&from=2026-03-02T00:00&to=2026-03-07T00:00&durationMinutes=60&workStart=08:30&workEnd=17:30
+    // Khung giờ rảnh chung của cả nhóm, sớm nhất trước; workStart/workEnd giới hạn trong giờ làm ngày làm việc
+    @GetMapping("/slots")
+    public ResponseEntity<?> findSlots(
+            @RequestParam List<Long> userIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "30") int durationMinutes,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime workStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime workEnd,
+            @RequestParam(defaultValue = "20") int limit) {
+        String invalid = validate(userIds, from, to);
+        if (invalid != null) {
+            return badRequest(invalid);
+        }
+        if (durationMinutes < 1) {
+            return badRequest("durationMinutes must be positive");
+        }
+        if ((workStart == null) != (workEnd == null) || (workStart != null && !workEnd.isAfter(workStart))) {
+            return badRequest("workStart and workEnd must be given together, with workStart before workEnd");
+        }
+        try {
+            return ResponseEntity.ok(freeBusyService.findFreeSlots(userIds, from, to, Duration.ofMinutes(durationMinutes),
+                    workStart, workEnd, Math.max(1, Math.min(limit, MAX_SLOTS))));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (IllegalStateException e) {
+            return unavailable(e.getMessage());
+        }
+    }
+
+    private static String validate(List<Long> userIds, LocalDateTime from, LocalDateTime to) {
+        if (userIds.isEmpty()) {
+            return "userIds is required";
+        }
+        if (userIds.size() > MAX_USERS) {
+            return "At most " + MAX_USERS + " users per query";
+        }
+        if (!to.isAfter(from)) {
+            return "'to' must be after 'from'";
+        }
+        if (Duration.between(from, to).toDays() > MAX_WINDOW_DAYS) {
+            return "Window must be at most " + MAX_WINDOW_DAYS + " days";
+        }
+        return null;
+    }
+
+    private static ResponseEntity<Map<String, String>> badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    // Index chưa nạp xong lúc khởi động
+    private static ResponseEntity<Map<String, String>> unavailable(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+}
@@ -1,14 +1,24 @@
 package com.hrm.utility.controller;
 
 import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.entity.HolidayImportResultDto;
+import com.hrm.utility.service.HolidayImportService;
 import com.hrm.utility.service.HolidayService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/holidays")
@@ -16,9 +26,14 @@ import java.util.List;
 public class HolidayController {
 
     private final HolidayService holidayService;
+    private final HolidayImportService holidayImportService;
 
     @GetMapping
-    public List<Holiday> getAllHolidays() {
+    public List<Holiday> getAllHolidays(WebRequest request) {
+        // 304 Not Modified nếu client đã có phiên bản hiện tại (không query DB)
+        if (request.checkNotModified("\"holidays-" + holidayService.getVersion() + "\"")) {
+            return null;
+        }
         return holidayService.getAllHolidays();
     }
 
@@ -27,10 +42,31 @@ public class HolidayController {
         return holidayService.createHoliday(holiday);
     }
 
+    // API: POST http://localhost:8081/api/holidays/import  (multipart: file=holidays.csv hoặc holidays.ics)
+    // CSV: name,date[,recurring][,description]; format lấy theo đuôi file, hoặc truyền ?format=csv|ics
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importHolidays(@RequestParam("file") MultipartFile file,
+                                            @RequestParam(required = false) String format) throws IOException {
+        HolidayImportService.Format resolved = resolveFormat(format, file);
+        if (resolved == null) {
+            return badRequest("Unknown file format, use a .csv or .ics file or pass format=csv|ics");
+        }
+        try (InputStream in = file.getInputStream()) {
+            HolidayImportResultDto result = holidayImportService.importHolidays(in, resolved);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
     @GetMapping("/check")
     public List<Holiday> checkHolidays(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            WebRequest request) {
+        if (request.checkNotModified("\"holidays-" + holidayService.getVersion() + "-" + start + "-" + end + "\"")) {
+            return null;
+        }
         return holidayService.getHolidaysInRange(start, end);
     }
 
@@ -39,4 +75,28 @@ public class HolidayController {
         holidayService.deleteHoliday(id);
         return ResponseEntity.ok().build();
     }
+
+    private static HolidayImportService.Format resolveFormat(String format, MultipartFile file) {
+        if (format != null) {
+            return switch (format.toLowerCase(Locale.ROOT)) {
+                case "csv" -> HolidayImportService.Format.CSV;
+                case "ics", "ical" -> HolidayImportService.Format.ICS;
+                default -> null;
+            };
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        if (filename.endsWith(".csv") || "text/csv".equals(file.getContentType())) {
+            return HolidayImportService.Format.CSV;
+        }
+        if (filename.endsWith(".ics") || "text/calendar".equals(file.getContentType())) {
+            return HolidayImportService.Format.ICS;
+        }
+        return null;
+    }
+
+    private static ResponseEntity<Map<String, String>> badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.badRequest().body(error);
+    }
 }
@@ -0,0 +1,94 @@
+package com.hrm.utility.controller;
+
+import com.hrm.utility.entity.WorkingDayRangeDto;
+import com.hrm.utility.service.WorkingDayCalendar;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/workdays")
+@RequiredArgsConstructor
+public class WorkingDayController {
+
+    private static final int MAX_BATCH_SIZE = 10000;
+
+    private final WorkingDayCalendar workingDayCalendar;
+
+    // API: GET http://localhost:8081/api/workdays/count?start=2026-04-20&end=2026-05-08
+    @GetMapping("/count")
+    public ResponseEntity<?> countWorkingDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        try {
+            return ResponseEntity.ok(new WorkingDayRangeDto(start, end, workingDayCalendar.countWorkingDays(start, end)));
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    // API: GET http://localhost:8081/api/workdays/next?date=2026-04-30  (ngày làm việc đầu tiên >= date)
+    @GetMapping("/next")
+    public ResponseEntity<?> nextWorkingDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("date", date);
+            response.put("nextWorkingDay", workingDayCalendar.nextWorkingDay(date));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    // API: GET http://localhost:8081/api/workdays/add?date=2026-04-28&days=5
+    @GetMapping("/add")
+    public ResponseEntity<?> addWorkingDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam int days) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("date", date);
+            response.put("days", days);
+            response.put("result", workingDayCalendar.addWorkingDays(date, days));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+    }
+
+    // API: POST http://localhost:8081/api/workdays/count/batch
+    // Body: [{ "start": "2026-01-01", "end": "2026-01-31" }, ...]  (cho kỳ tính lương)
+    @PostMapping("/count/batch")
+    public ResponseEntity<?> countWorkingDaysBatch(@RequestBody List<WorkingDayRangeDto> ranges) {
+        if (ranges.size() > MAX_BATCH_SIZE) {
+            return badRequest("At most " + MAX_BATCH_SIZE + " ranges per batch");
+        }
+        List<WorkingDayRangeDto> result = new ArrayList<>(ranges.size());
+        try {
+            for (WorkingDayRangeDto range : ranges) {
+                if (range.getStart() == null || range.getEnd() == null) {
+                    return badRequest("start and end are required for every range");
+                }
+                result.add(new WorkingDayRangeDto(range.getStart(), range.getEnd(),
+                        workingDayCalendar.countWorkingDays(range.getStart(), range.getEnd())));
+            }
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    private static ResponseEntity<Map<String, String>> badRequest(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.badRequest().body(error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.hrm.utility.entity;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchDecisionRequestDto {
+    private List<Integer> ids;
+    private String decision; // "APPROVE" hoặc "REJECT"
+    private String note;
+}
@@ -0,0 +1,14 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDecisionResultDto {
+    private Integer leaveRequestID;
+    private String outcome; // Approved / Rejected / NOT_FOUND / NOT_PENDING
+    private String currentStatus;
+}
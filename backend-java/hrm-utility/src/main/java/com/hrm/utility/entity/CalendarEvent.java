@@ -2,10 +2,19 @@ package com.hrm.utility.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "`CalendarEvents`")
+// Mỗi nhánh UNION ALL của CalendarEventRepository (EventType / UserID / CreatedBy) có index riêng thay vì quét cả bảng
+@Table(name = "`CalendarEvents`", indexes = {
+        @Index(name = "IX_CalendarEvents_Type_Start", columnList = "`EventType`, `StartTime`"),
+        @Index(name = "IX_CalendarEvents_User_Start", columnList = "`UserID`, `StartTime`"),
+        @Index(name = "IX_CalendarEvents_CreatedBy_Start", columnList = "`CreatedBy`, `StartTime`"),
+        // Free/busy rebuild: sự kiện chưa kết thúc và chuỗi lặp lại (RecurrenceRule NULL với sự kiện thường)
+        @Index(name = "IX_CalendarEvents_End", columnList = "`EndTime`"),
+        @Index(name = "IX_CalendarEvents_Recurrence", columnList = "`RecurrenceRule`")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -47,9 +56,29 @@ public class CalendarEvent {
     @Column(name = "`Color`")
     private String color;
 
+    // Sự kiện lặp lại lưu một dòng: RRULE (vd. "FREQ=WEEKLY;BYDAY=MO,WE") + các ngày bị bỏ qua ("2026-03-02,2026-03-09").
+    // Các lần xảy ra chỉ được sinh ra trong khoảng thời gian được đọc.
+    @Column(name = "`RecurrenceRule`")
+    private String recurrenceRule;
+
+    @Column(name = "`RecurrenceExceptions`", columnDefinition = "TEXT")
+    private String recurrenceExceptions;
+
+    // Thời điểm kết thúc của lần cuối (tính khi lưu), null = lặp mãi; dùng để lọc theo khoảng thời gian trong SQL
+    @Column(name = "`RecurrenceEnd`")
+    private LocalDateTime recurrenceEnd;
+
     @Column(name = "`CreatedAt`", updatable = false)
     private LocalDateTime createdAt;
 
+    // Chỉ có ở các lần xảy ra được sinh từ một chuỗi lặp lại (không lưu DB): eventID = null, seriesId = chuỗi gốc.
+    // Bỏ một lần xảy ra: POST /api/calendar/events/{seriesId}/exceptions?date={occurrenceDate}
+    @Transient
+    private Long seriesId;
+
+    @Transient
+    private LocalDate occurrenceDate;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
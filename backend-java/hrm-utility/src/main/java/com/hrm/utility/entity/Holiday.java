@@ -1,12 +1,18 @@
 package com.hrm.utility.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "`Holidays`")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "`Holidays`", indexes = {
+        @Index(name = "IX_Holidays_Recurring_Date", columnList = "`IsRecurring`, `HolidayDate`")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,19 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// Kết quả import lịch nghỉ lễ hàng loạt (CSV / ICS)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolidayImportResultDto {
+    private String format;
+    private Integer rows;       // số ngày lễ đọc được từ file (sự kiện nhiều ngày tính mỗi ngày một dòng)
+    private Integer inserted;
+    private Integer duplicates; // đã có trong DB hoặc lặp lại trong file
+    private Integer invalid;
+    private List<String> errors; // tối đa 20 lỗi đầu tiên, dạng "line N: ..."
+}
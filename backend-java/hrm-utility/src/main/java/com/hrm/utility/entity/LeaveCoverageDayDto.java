@@ -0,0 +1,16 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Một ô của heatmap: số nhân viên nghỉ (đơn đã duyệt) / có đơn đang chờ duyệt (và chưa có đơn duyệt) trong ngày đó
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveCoverageDayDto {
+    private LocalDate date;
+    private Integer approved;
+    private Integer pending;
+}
@@ -0,0 +1,47 @@
+package com.hrm.utility.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+// Nhật ký duyệt/từ chối đơn (chỉ ghi thêm, không sửa/xóa); được ghi theo lô bởi ApprovalAuditService
+@Entity
+@Immutable
+@Table(name = "LeaveDecisionAudit", indexes = {
+        @Index(name = "IX_LeaveDecisionAudit_Request", columnList = "LeaveRequestID"),
+        @Index(name = "IX_LeaveDecisionAudit_DecidedBy_DecidedAt", columnList = "DecidedBy, DecidedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveDecisionAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "AuditID")
+    private Long auditID;
+
+    @Column(name = "LeaveRequestID", nullable = false)
+    private Integer leaveRequestID;
+
+    @Column(name = "PreviousStatus", length = 20, nullable = false)
+    private String previousStatus;
+
+    @Column(name = "NewStatus", length = 20, nullable = false)
+    private String newStatus;
+
+    @Column(name = "DecidedBy")
+    private Integer decidedBy; // ManagerID của đơn (chưa có user đăng nhập trong service này)
+
+    @Column(name = "Note", columnDefinition = "TEXT")
+    private String note;
+
+    @Column(name = "DecisionKey", length = 64)
+    private String decisionKey;
+
+    @Column(name = "DecidedAt", nullable = false)
+    private LocalDateTime decidedAt;
+}
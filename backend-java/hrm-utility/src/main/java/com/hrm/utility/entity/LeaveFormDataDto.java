@@ -0,0 +1,46 @@
+package com.hrm.utility.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// Các cột cần để in đơn nghỉ phép (PDF), lấy bằng constructor projection
+@Data
+@NoArgsConstructor
+public class LeaveFormDataDto {
+    private Integer leaveRequestID;
+    private String employeeName;
+    private String leaveTypeName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal totalDays;
+    private String reason;
+
+    public LeaveFormDataDto(Integer leaveRequestID, String firstName, String lastName, String leaveTypeName,
+                            LocalDate startDate, LocalDate endDate, BigDecimal totalDays, String reason) {
+        this.leaveRequestID = leaveRequestID;
+        if (firstName != null || lastName != null) {
+            this.employeeName = firstName + " " + lastName;
+        }
+        this.leaveTypeName = leaveTypeName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalDays = totalDays;
+        this.reason = reason;
+    }
+
+    // Cùng key với body của /api/documents/generate/leave-pdf
+    public Map<String, Object> toTemplateData() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("employeeName", employeeName);
+        data.put("leaveType", leaveTypeName);
+        data.put("startDate", startDate);
+        data.put("endDate", endDate);
+        data.put("totalDays", totalDays);
+        data.put("reason", reason);
+        return data;
+    }
+}
@@ -7,7 +7,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "LeaveRequests")
+// Index theo các điều kiện lọc của LeaveRequestRepository (InnoDB tự thêm LeaveRequestID vào cuối mỗi index)
+@Table(name = "LeaveRequests", indexes = {
+        @Index(name = "IX_LeaveRequests_Manager_Status_Type", columnList = "ManagerID, Status, LeaveTypeID, RequestedDate"),
+        @Index(name = "IX_LeaveRequests_Manager_Requested", columnList = "ManagerID, RequestedDate"),
+        @Index(name = "IX_LeaveRequests_StartDate", columnList = "StartDate"),
+        @Index(name = "IX_LeaveRequests_Status_EndDate", columnList = "Status, EndDate")
+})
 @Data // Lombok để tự tạo getter/setter
 public class LeaveRequest {
 
@@ -28,6 +34,9 @@ public class LeaveRequest {
     @Column(name = "TotalDays")
     private BigDecimal totalDays;
 
+    @Column(name = "Reason")
+    private String reason;
+
     @Column(name = "Status")
     private String status;
 
@@ -40,13 +49,24 @@ public class LeaveRequest {
     @Column(name = "ApprovedDate")
     private LocalDateTime approvedDate;
 
+    // Tăng mỗi lần đổi trạng thái; các UPDATE duyệt/từ chối là compare-and-set trên cột này
+    // ddl-auto=update thêm cột với DEFAULT 0 để các dòng cũ và dòng do backend .NET insert không bị NULL
+    @Version
+    @Column(name = "Version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer version;
+
+    // Idempotency-Key của lần duyệt/từ chối đã áp dụng, để client retry nhận lại đúng kết quả
+    @Column(name = "DecisionKey", length = 64)
+    private String decisionKey;
+
     // Join để lấy thông tin người xin nghỉ (Employee)
-    @ManyToOne
+    // LAZY: khi cần sẽ lấy từ second-level cache thay vì JOIN mỗi lần load đơn
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "EmployeeID", insertable = false, updatable = false)
     private Employee employee;
 
     // Join để lấy tên loại nghỉ (LeaveType)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "LeaveTypeID", insertable = false, updatable = false)
     private LeaveType leaveType;
 }
\ No newline at end of file
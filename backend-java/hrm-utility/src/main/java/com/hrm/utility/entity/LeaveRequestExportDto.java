@@ -0,0 +1,40 @@
+package com.hrm.utility.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Một dòng của file Excel lịch sử duyệt đơn, lấy bằng constructor projection
+@Data
+@NoArgsConstructor
+public class LeaveRequestExportDto {
+    private Integer leaveRequestID;
+    private String employeeName;
+    private String leaveTypeName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal totalDays;
+    private String status;
+    private LocalDateTime requestedDate;
+    private LocalDateTime approvedDate;
+    private String approvalNote;
+
+    public LeaveRequestExportDto(Integer leaveRequestID, String firstName, String lastName, String leaveTypeName,
+                                 LocalDate startDate, LocalDate endDate, BigDecimal totalDays, String status,
+                                 LocalDateTime requestedDate, LocalDateTime approvedDate, String approvalNote) {
+        this.leaveRequestID = leaveRequestID;
+        if (firstName != null || lastName != null) {
+            this.employeeName = firstName + " " + lastName;
+        }
+        this.leaveTypeName = leaveTypeName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalDays = totalDays;
+        this.status = status;
+        this.requestedDate = requestedDate;
+        this.approvedDate = approvedDate;
+        this.approvalNote = approvalNote;
+    }
+}
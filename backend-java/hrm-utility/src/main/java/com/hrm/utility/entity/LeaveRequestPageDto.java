@@ -0,0 +1,14 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveRequestPageDto {
+    private List<LeaveRequestResponseDto> items;
+    private String nextCursor; // null khi đã hết dữ liệu
+}
@@ -1,10 +1,13 @@
 package com.hrm.utility.entity;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class LeaveRequestResponseDto {
     private Integer leaveRequestID;
     private String employeeName; // Tên người xin nghỉ
@@ -16,4 +19,22 @@ public class LeaveRequestResponseDto {
     private BigDecimal totalDays;
     private String status;
     private String requestedDate;
-}
\ No newline at end of file
+
+    // Constructor projection dùng trong JPQL "SELECT new ..." (LeaveRequestRepository)
+    public LeaveRequestResponseDto(Integer leaveRequestID, String firstName, String lastName, String avatarUrl,
+                                   Integer leaveTypeId, String leaveTypeName, LocalDate startDate, LocalDate endDate,
+                                   BigDecimal totalDays, String status, LocalDateTime requestedDate) {
+        this.leaveRequestID = leaveRequestID;
+        if (firstName != null || lastName != null) {
+            this.employeeName = firstName + " " + lastName;
+        }
+        this.avatarUrl = avatarUrl;
+        this.leaveTypeId = leaveTypeId;
+        this.leaveTypeName = leaveTypeName;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalDays = totalDays;
+        this.status = status;
+        this.requestedDate = requestedDate != null ? requestedDate.toString() : null;
+    }
+}
@@ -1,9 +1,13 @@
 package com.hrm.utility.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "LeaveTypes") // Tên bảng trong Database
 @Data
 public class LeaveType {
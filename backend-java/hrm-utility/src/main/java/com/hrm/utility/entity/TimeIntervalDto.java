@@ -0,0 +1,15 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Khoảng thời gian [start, end) cho API free/busy (khoảng bận hoặc khe trống)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeIntervalDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,16 @@
+package com.hrm.utility.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Một khoảng ngày cho API đếm ngày làm việc (workingDays được điền trong response)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkingDayRangeDto {
+    private LocalDate start;
+    private LocalDate end;
+    private Integer workingDays;
+}
@@ -1,20 +1,61 @@
 package com.hrm.utility.repository;
 
 import com.hrm.utility.entity.CalendarEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CalendarEventRepository extends JpaRepository<CalendarEvent, Long> {
 
-    @Query("SELECT e FROM CalendarEvent e WHERE (e.eventType = :type) OR (e.userID = :userId) OR (e.createdBy = :userId)")
+    // Mỗi truy vấn "sự kiện của user" là UNION ALL của ba nhánh, mỗi nhánh đi theo một index
+    // (IX_CalendarEvents_Type_Start / _User_Start / _CreatedBy_Start) thay vì một điều kiện OR quét cả bảng.
+    // Các nhánh loại trừ nhau (EventType <> :type, UserID <> :userId) nên không cần DISTINCT.
+    String TYPE_BRANCH = "SELECT e FROM CalendarEvent e WHERE e.eventType = :type ";
+    String USER_BRANCH = "SELECT e FROM CalendarEvent e WHERE e.userID = :userId AND e.eventType <> :type ";
+    String CREATOR_BRANCH = "SELECT e FROM CalendarEvent e WHERE e.createdBy = :userId AND e.eventType <> :type " +
+            "AND (e.userID IS NULL OR e.userID <> :userId) ";
+
+    @Query(TYPE_BRANCH + "UNION ALL " + USER_BRANCH + "UNION ALL " + CREATOR_BRANCH)
     List<CalendarEvent> findRelevantEvents(@Param("userId") Long userId, @Param("type") CalendarEvent.EventType type);
 
-    @Query("SELECT e FROM CalendarEvent e WHERE ((e.eventType = :type) OR (e.userID = :userId)) AND (e.startTime >= :start AND e.startTime <= :end)")
+    // Same events as findRelevantEvents, bounded to events overlapping [start, end].
+    // A recurring series matches while it has not ended (RecurrenceEnd null = never ends)
+    String OVERLAPS_RANGE = "AND e.startTime <= :end AND (e.endTime >= :start " +
+            "OR (e.recurrenceRule IS NOT NULL AND (e.recurrenceEnd IS NULL OR e.recurrenceEnd >= :start))) ";
+
+    @Query(TYPE_BRANCH + OVERLAPS_RANGE + "UNION ALL " + USER_BRANCH + OVERLAPS_RANGE + "UNION ALL " + CREATOR_BRANCH + OVERLAPS_RANGE)
+    List<CalendarEvent> findRelevantEventsInRange(@Param("userId") Long userId, @Param("type") CalendarEvent.EventType type, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    String STARTS_IN_RANGE = "AND e.startTime >= :start AND e.startTime <= :end ";
+
+    @Query(TYPE_BRANCH + STARTS_IN_RANGE + "UNION ALL " + USER_BRANCH + STARTS_IN_RANGE)
     List<CalendarEvent> findEventsInRange(@Param("userId") Long userId, @Param("type") CalendarEvent.EventType type, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // ICS feed: đọc dạng Stream (MySQL stream từng dòng với fetch size Integer.MIN_VALUE),
+    // phải gọi trong transaction và đóng stream sau khi dùng.
+    // Không ORDER BY: iCalendar không yêu cầu thứ tự VEVENT, và sắp xếp cả UNION sẽ cần filesort trước khi stream
+    String ACTIVE_SINCE = "AND (e.endTime >= :since " +
+            "OR (e.recurrenceRule IS NOT NULL AND (e.recurrenceEnd IS NULL OR e.recurrenceEnd >= :since))) ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(TYPE_BRANCH + ACTIVE_SINCE + "UNION ALL " + USER_BRANCH + ACTIVE_SINCE + "UNION ALL " + CREATOR_BRANCH + ACTIVE_SINCE)
+    Stream<CalendarEvent> streamRelevantEventsSince(@Param("userId") Long userId, @Param("type") CalendarEvent.EventType type, @Param("since") LocalDateTime since);
+
+    // Free/busy index: hai câu riêng thay vì một câu OR, mỗi câu đi theo một index
+    // (IX_CalendarEvents_End / IX_CalendarEvents_Recurrence); chuỗi lặp lại có thể nằm ở cả hai kết quả
+    @Query("SELECT e FROM CalendarEvent e WHERE e.endTime >= :from")
+    List<CalendarEvent> findEndingSince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT e FROM CalendarEvent e WHERE e.recurrenceRule IS NOT NULL " +
+           "AND (e.recurrenceEnd IS NULL OR e.recurrenceEnd >= :from)")
+    List<CalendarEvent> findActiveSeriesSince(@Param("from") LocalDateTime from);
 }
@@ -1,8 +1,11 @@
 package com.hrm.utility.repository;
 
 import com.hrm.utility.entity.Holiday;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -20,4 +23,9 @@ public interface HolidayRepository extends JpaRepository<Holiday, Long> {
     List<Holiday> findHolidaysInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
     List<Holiday> findByHolidayDateBetween(LocalDate startDate, LocalDate endDate);
+
+    // Kết quả findAll nằm trong query cache (L2), tự invalidate khi bảng Holidays thay đổi
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Holiday> findAll();
 }
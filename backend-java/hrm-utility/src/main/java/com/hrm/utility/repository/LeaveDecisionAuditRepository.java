@@ -0,0 +1,28 @@
+package com.hrm.utility.repository;
+
+import com.hrm.utility.entity.LeaveDecisionAudit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeaveDecisionAuditRepository extends JpaRepository<LeaveDecisionAudit, Long> {
+
+    // Các tham số null = không lọc; mới nhất trước
+    @Query("SELECT a FROM LeaveDecisionAudit a " +
+           "WHERE (:leaveRequestId IS NULL OR a.leaveRequestID = :leaveRequestId) " +
+           "AND (:decidedBy IS NULL OR a.decidedBy = :decidedBy) " +
+           "AND (:from IS NULL OR a.decidedAt >= :from) " +
+           "AND (:to IS NULL OR a.decidedAt < :to) " +
+           "ORDER BY a.auditID DESC")
+    List<LeaveDecisionAudit> findTrail(@Param("leaveRequestId") Integer leaveRequestId,
+                                       @Param("decidedBy") Integer decidedBy,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+}
@@ -1,11 +1,24 @@
 package com.hrm.utility.repository;
 
+import com.hrm.utility.entity.LeaveFormDataDto;
+import com.hrm.utility.entity.LeaveRequestExportDto;
 import com.hrm.utility.entity.LeaveRequest;
+import com.hrm.utility.entity.LeaveRequestResponseDto;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Integer> {
@@ -32,4 +45,125 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Inte
     @Query("SELECT l FROM LeaveRequest l WHERE l.managerID = :managerId AND l.leaveType.leaveTypeID = :leaveTypeId")
     List<LeaveRequest> findByManagerIDAndLeaveType(@Param("managerId") Integer managerId, 
                                                    @Param("leaveTypeId") Integer leaveTypeId);
-}
\ No newline at end of file
+
+    // ---- Projection queries cho màn hình duyệt đơn ----
+    // Chỉ lấy các cột LeaveRequestResponseDto cần, trong một câu JOIN duy nhất
+    // (không load entity, không select phụ cho Employee/LeaveType).
+    // Keyset pagination: sắp xếp theo (RequestedDate, LeaveRequestID) giảm dần,
+    // cursor = cặp giá trị của dòng cuối trang trước (null cho trang đầu).
+    String APPROVAL_PROJECTION = "SELECT new com.hrm.utility.entity.LeaveRequestResponseDto(" +
+            "l.leaveRequestID, e.firstName, e.lastName, e.avatarUrl, t.leaveTypeID, t.name, " +
+            "l.startDate, l.endDate, l.totalDays, l.status, l.requestedDate) " +
+            "FROM LeaveRequest l LEFT JOIN l.employee e LEFT JOIN l.leaveType t ";
+    String KEYSET_CONDITION = " AND (:cursorDate IS NULL OR l.requestedDate < :cursorDate " +
+            "OR (l.requestedDate = :cursorDate AND l.leaveRequestID < :cursorId)) " +
+            "ORDER BY l.requestedDate DESC, l.leaveRequestID DESC";
+
+    @Query(APPROVAL_PROJECTION + "WHERE l.managerID = :managerId AND l.status = :status" + KEYSET_CONDITION)
+    List<LeaveRequestResponseDto> findApprovalRowsByManagerAndStatus(@Param("managerId") Integer managerId,
+                                                                     @Param("status") String status,
+                                                                     @Param("cursorDate") LocalDateTime cursorDate,
+                                                                     @Param("cursorId") Integer cursorId,
+                                                                     Pageable pageable);
+
+    @Query(APPROVAL_PROJECTION + "WHERE l.managerID = :managerId AND l.status = :status AND t.leaveTypeID = :leaveTypeId" + KEYSET_CONDITION)
+    List<LeaveRequestResponseDto> findApprovalRowsByManagerAndStatusAndLeaveType(@Param("managerId") Integer managerId,
+                                                                                 @Param("status") String status,
+                                                                                 @Param("leaveTypeId") Integer leaveTypeId,
+                                                                                 @Param("cursorDate") LocalDateTime cursorDate,
+                                                                                 @Param("cursorId") Integer cursorId,
+                                                                                 Pageable pageable);
+
+    @Query(APPROVAL_PROJECTION + "WHERE l.managerID = :managerId" + KEYSET_CONDITION)
+    List<LeaveRequestResponseDto> findApprovalRowsByManager(@Param("managerId") Integer managerId,
+                                                            @Param("cursorDate") LocalDateTime cursorDate,
+                                                            @Param("cursorId") Integer cursorId,
+                                                            Pageable pageable);
+
+    @Query(APPROVAL_PROJECTION + "WHERE l.managerID = :managerId AND t.leaveTypeID = :leaveTypeId" + KEYSET_CONDITION)
+    List<LeaveRequestResponseDto> findApprovalRowsByManagerAndLeaveType(@Param("managerId") Integer managerId,
+                                                                        @Param("leaveTypeId") Integer leaveTypeId,
+                                                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                                                        @Param("cursorId") Integer cursorId,
+                                                                        Pageable pageable);
+
+    // ---- Approve/reject (một đơn hoặc batch) ----
+    // Đọc không khóa: [LeaveRequestID, Status, ManagerID, LeaveTypeID, DecisionKey]
+    @Query("SELECT l.leaveRequestID, l.status, l.managerID, l.leaveType.leaveTypeID, l.decisionKey " +
+           "FROM LeaveRequest l WHERE l.leaveRequestID IN :ids")
+    List<Object[]> findDecisionStates(@Param("ids") Collection<Integer> ids);
+
+    // Đọc lại không khóa sau UPDATE: transaction luôn thấy dòng chính nó vừa ghi, nên các dòng mang
+    // DecisionKey này chính là các dòng câu UPDATE vừa chuyển trạng thái
+    @Query("SELECT l.leaveRequestID, l.status, l.managerID, l.leaveType.leaveTypeID, l.decisionKey " +
+           "FROM LeaveRequest l WHERE l.leaveRequestID IN :ids AND l.decisionKey = :decisionKey")
+    List<Object[]> findDecidedByKey(@Param("ids") Collection<Integer> ids, @Param("decisionKey") String decisionKey);
+
+    // Compare-and-set: chỉ chuyển Pending -> Approved/Rejected, tăng version trong cùng câu UPDATE.
+    // Đơn đã bị người khác duyệt trước thì không khớp điều kiện và giữ nguyên.
+    // COALESCE: cột Version được thêm bằng DDL cũ (nullable) trên DB đã nâng cấp trước đó
+    @Modifying
+    @Query("UPDATE LeaveRequest l SET l.status = :newStatus, l.approvalNote = :note, l.approvedDate = :decidedAt, " +
+           "l.decisionKey = :decisionKey, l.version = COALESCE(l.version, 0) + 1 " +
+           "WHERE l.leaveRequestID IN :ids AND l.status = 'Pending'")
+    int decidePending(@Param("ids") Collection<Integer> ids,
+                      @Param("newStatus") String newStatus,
+                      @Param("note") String note,
+                      @Param("decidedAt") LocalDateTime decidedAt,
+                      @Param("decisionKey") String decisionKey);
+
+    // ---- Xuất hàng loạt đơn nghỉ phép (PDF/ZIP) ----
+    // managerId/status có thể null = không lọc; lấy các đơn bắt đầu trong [from, to]
+    @Query("SELECT new com.hrm.utility.entity.LeaveFormDataDto(" +
+           "l.leaveRequestID, e.firstName, e.lastName, t.name, l.startDate, l.endDate, l.totalDays, l.reason) " +
+           "FROM LeaveRequest l LEFT JOIN l.employee e LEFT JOIN l.leaveType t " +
+           "WHERE (:managerId IS NULL OR l.managerID = :managerId) " +
+           "AND (:status IS NULL OR l.status = :status) " +
+           "AND l.startDate BETWEEN :from AND :to " +
+           "ORDER BY l.startDate, l.leaveRequestID")
+    List<LeaveFormDataDto> findLeaveForms(@Param("managerId") Integer managerId,
+                                          @Param("status") String status,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    // ---- Xuất Excel lịch sử duyệt đơn ----
+    // Trả về Stream (cursor) để đọc từng dòng; phải gọi trong transaction và đóng stream sau khi dùng.
+    // Fetch size Integer.MIN_VALUE: MySQL Connector/J stream từng dòng cho riêng truy vấn này, không cần
+    // useCursorFetch=true trên JDBC URL (vốn áp server-side cursor cho mọi statement có fetch size).
+    // Trong lúc stream, connection không chạy được statement khác.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.hrm.utility.entity.LeaveRequestExportDto(" +
+           "l.leaveRequestID, e.firstName, e.lastName, t.name, l.startDate, l.endDate, l.totalDays, l.status, " +
+           "l.requestedDate, l.approvedDate, l.approvalNote) " +
+           "FROM LeaveRequest l LEFT JOIN l.employee e LEFT JOIN l.leaveType t " +
+           "WHERE (:managerId IS NULL OR l.managerID = :managerId) " +
+           "AND (:leaveTypeId IS NULL OR t.leaveTypeID = :leaveTypeId) " +
+           "AND l.startDate BETWEEN :from AND :to " +
+           "ORDER BY l.startDate, l.leaveRequestID")
+    Stream<LeaveRequestExportDto> streamForExport(@Param("managerId") Integer managerId,
+                                                  @Param("leaveTypeId") Integer leaveTypeId,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+
+    // ---- Bộ đếm badge: [ManagerID, LeaveTypeID, Status, COUNT] ----
+    @Query("SELECT l.managerID, l.leaveType.leaveTypeID, l.status, COUNT(l) FROM LeaveRequest l " +
+           "GROUP BY l.managerID, l.leaveType.leaveTypeID, l.status")
+    List<Object[]> countGroupedByManagerStatusAndLeaveType();
+
+    // ---- Free/busy: đơn đã duyệt dạng [LeaveRequestID, EmployeeID, StartDate, EndDate] ----
+    @Query("SELECT l.leaveRequestID, l.employee.employeeID, l.startDate, l.endDate FROM LeaveRequest l " +
+           "WHERE l.status = 'Approved' AND l.endDate >= :from")
+    List<Object[]> findApprovedLeaveRanges(@Param("from") LocalDate from);
+
+    @Query("SELECT l.leaveRequestID, l.employee.employeeID, l.startDate, l.endDate FROM LeaveRequest l " +
+           "WHERE l.leaveRequestID IN :ids AND l.status = 'Approved'")
+    List<Object[]> findApprovedLeaveRangesByIds(@Param("ids") Collection<Integer> ids);
+
+    // ---- Heatmap vắng mặt của team: [StartDate, EndDate, Status] các đơn phủ lên [from, to] ----
+    @Query("SELECT l.employee.employeeID, l.startDate, l.endDate, l.status FROM LeaveRequest l " +
+           "WHERE l.managerID = :managerId AND l.status IN ('Approved', 'Pending') " +
+           "AND l.startDate <= :to AND l.endDate >= :from")
+    List<Object[]> findCoverageRanges(@Param("managerId") Integer managerId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+}
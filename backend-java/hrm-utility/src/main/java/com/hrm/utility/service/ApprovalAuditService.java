@@ -0,0 +1,235 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.LeaveDecisionAudit;
+import com.hrm.utility.repository.LeaveDecisionAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind journal of approve/reject decisions. {@link LeaveService} hands entries over after its
+ * transaction commits; a single background writer drains the bounded queue and inserts them in JDBC
+ * batches, so the approval path never waits for the audit insert.
+ * <p>
+ * When the queue is full the caller writes its own entries synchronously in a separate transaction
+ * (the caller runs in {@code afterCommit}, where the deciding transaction's connection is still bound).
+ * The writer wakes on the first queued entry and takes whatever else has piled up (up to
+ * {@code batch-size}), so batches grow with load. A batch that still fails after {@code max-attempts}
+ * is written row by row; rows that cannot be inserted are logged and counted as failed, so one bad
+ * entry cannot stall the writer. On shutdown it drains the queue before the datasource closes.
+ * Entries are visible to {@link #findTrail} once written.
+ */
+@Slf4j
+@Service
+public class ApprovalAuditService {
+
+    private static final String INSERT_SQL = "INSERT INTO LeaveDecisionAudit " +
+            "(LeaveRequestID, PreviousStatus, NewStatus, DecidedBy, Note, DecisionKey, DecidedAt) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Writer kiểm tra cờ dừng ít nhất mỗi khoảng này khi hàng đợi rỗng
+    private static final long IDLE_POLL_MS = 200;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaveDecisionAuditRepository auditRepository;
+    private final TransactionTemplate requiresNew;
+    private final BlockingQueue<LeaveDecisionAudit> queue;
+    private final int batchSize;
+    private final long retryMs;
+    private final int maxAttempts;
+    private final long shutdownTimeoutMs;
+    private final Counter written;
+    private final Counter overflow;
+    private final Counter failed;
+
+    private Thread writer;
+    private volatile boolean running = true;
+
+    public ApprovalAuditService(JdbcTemplate jdbcTemplate,
+                                LeaveDecisionAuditRepository auditRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${hrm.approvals.audit.queue-capacity:10000}") int queueCapacity,
+                                @Value("${hrm.approvals.audit.batch-size:500}") int batchSize,
+                                @Value("${hrm.approvals.audit.retry-ms:1000}") long retryMs,
+                                @Value("${hrm.approvals.audit.max-attempts:5}") int maxAttempts,
+                                @Value("${hrm.approvals.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditRepository = auditRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.retryMs = retryMs;
+        this.maxAttempts = maxAttempts;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        Gauge.builder("hrm.approvals.audit.queued", queue, BlockingQueue::size)
+                .description("Audit entries waiting for the background writer")
+                .register(meterRegistry);
+        this.written = Counter.builder("hrm.approvals.audit.written")
+                .description("Audit entries inserted")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("hrm.approvals.audit.overflow")
+                .description("Audit entries written synchronously because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("hrm.approvals.audit.failed")
+                .description("Audit entries that could not be inserted and were only logged")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::drainLoop, "approval-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues decisions for the journal; call after the deciding transaction has committed. Never throws:
+     * an entry that cannot be written is logged and counted instead.
+     */
+    public void record(Collection<LeaveDecisionAudit> entries) {
+        List<LeaveDecisionAudit> rejected = null;
+        for (LeaveDecisionAudit entry : entries) {
+            if (!running || !queue.offer(entry)) {
+                if (rejected == null) {
+                    rejected = new ArrayList<>();
+                }
+                rejected.add(entry);
+            }
+        }
+        if (rejected != null) {
+            // Hàng đợi đầy (DB chậm/mất kết nối) hoặc đang tắt: ghi trực tiếp trong transaction riêng,
+            // không dùng connection của transaction vừa commit (autocommit tắt, không ai commit nữa)
+            overflow.increment(rejected.size());
+            List<LeaveDecisionAudit> entriesToWrite = rejected;
+            try {
+                requiresNew.executeWithoutResult(status -> insert(entriesToWrite));
+            } catch (RuntimeException e) {
+                log.warn("Synchronous audit write of {} entries failed, writing them one by one", rejected.size(), e);
+                insertEach(rejected);
+            }
+        }
+    }
+
+    public List<LeaveDecisionAudit> findTrail(Integer leaveRequestId, Integer decidedBy, LocalDate from, LocalDate to, int limit) {
+        return auditRepository.findTrail(leaveRequestId, decidedBy,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                PageRequest.of(0, limit));
+    }
+
+    private void drainLoop() {
+        List<LeaveDecisionAudit> batch = new ArrayList<>(batchSize);
+        long retryDelay = retryMs;
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LeaveDecisionAudit first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                insert(batch);
+                batch.clear();
+                retryDelay = retryMs;
+                attempts = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                if (++attempts >= maxAttempts) {
+                    // Lỗi không tự hết (dữ liệu sai, vi phạm ràng buộc): tách lô để chỉ bỏ qua các dòng hỏng
+                    log.warn("Audit flush of {} entries failed {} times, writing them one by one", batch.size(), attempts, e);
+                    insertEach(batch);
+                    batch.clear();
+                    retryDelay = retryMs;
+                    attempts = 0;
+                    continue;
+                }
+                // Giữ nguyên lô và thử lại với độ trễ tăng dần; khi đang tắt thì không chờ nữa
+                log.warn("Audit flush of {} entries failed, retrying in {} ms", batch.size(), retryDelay, e);
+                if (!running) {
+                    break;
+                }
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+        queue.drainTo(batch);
+        for (LeaveDecisionAudit entry : batch) {
+            log.error("Audit entry not persisted: request={} {} -> {} by {} at {} key={}", entry.getLeaveRequestID(),
+                    entry.getPreviousStatus(), entry.getNewStatus(), entry.getDecidedBy(), entry.getDecidedAt(),
+                    entry.getDecisionKey());
+        }
+    }
+
+    private void insertEach(List<LeaveDecisionAudit> entries) {
+        for (LeaveDecisionAudit entry : entries) {
+            try {
+                requiresNew.executeWithoutResult(status -> insert(List.of(entry)));
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("Audit entry not persisted: request={} {} -> {} by {} at {} key={}", entry.getLeaveRequestID(),
+                        entry.getPreviousStatus(), entry.getNewStatus(), entry.getDecidedBy(), entry.getDecidedAt(),
+                        entry.getDecisionKey(), e);
+            }
+        }
+    }
+
+    private void insert(List<LeaveDecisionAudit> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getLeaveRequestID());
+            ps.setString(2, entry.getPreviousStatus());
+            ps.setString(3, entry.getNewStatus());
+            ps.setObject(4, entry.getDecidedBy());
+            ps.setString(5, entry.getNote());
+            ps.setString(6, entry.getDecisionKey());
+            ps.setTimestamp(7, Timestamp.valueOf(entry.getDecidedAt()));
+        });
+        written.increment(entries.size());
+    }
+
+    // Chạy trước khi DataSource đóng (bean này phụ thuộc JdbcTemplate): ghi nốt các bản ghi còn trong hàng đợi
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            log.error("Audit writer did not finish within {} ms, {} entries still queued", shutdownTimeoutMs, queue.size());
+            return;
+        }
+        // Bản ghi lọt vào hàng đợi ngay lúc writer vừa dừng
+        List<LeaveDecisionAudit> late = new ArrayList<>();
+        queue.drainTo(late);
+        if (!late.isEmpty()) {
+            insert(late);
+        }
+    }
+}
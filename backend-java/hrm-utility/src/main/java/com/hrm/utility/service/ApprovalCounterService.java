@@ -0,0 +1,132 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.repository.LeaveRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory request counters keyed by (managerID, status, leaveTypeID), used by the dashboard
+ * badge instead of listing every pending row. Loaded from one GROUP BY query at startup, moved
+ * in place by LeaveService on approve/reject, and reconciled periodically to pick up requests
+ * created outside this service.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApprovalCounterService {
+
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // managerID -> status -> leaveTypeID -> count
+    private volatile Map<Integer, Map<String, Map<Integer, AtomicLong>>> counters = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${hrm.approvals.counters.refresh-ms:60000}",
+               initialDelayString = "${hrm.approvals.counters.refresh-ms:60000}")
+    public void reload() {
+        Map<Integer, Map<String, Map<Integer, AtomicLong>>> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : leaveRequestRepository.countGroupedByManagerStatusAndLeaveType()) {
+            Integer managerId = (Integer) row[0];
+            Integer leaveTypeId = (Integer) row[1];
+            String status = (String) row[2];
+            long count = ((Number) row[3]).longValue();
+            if (managerId == null || status == null) {
+                continue;
+            }
+            counter(fresh, managerId, status, leaveTypeId).set(count);
+        }
+        Map<Integer, Map<String, Map<Integer, AtomicLong>>> previous = counters;
+        counters = fresh;
+
+        // Đơn mới (tạo từ service khác) chỉ được phát hiện khi reconcile: báo cho các manager có số Pending thay đổi
+        for (Integer managerId : fresh.keySet()) {
+            if (pendingTotal(previous, managerId) != pendingTotal(fresh, managerId)) {
+                eventPublisher.publishEvent(new ApprovalQueueEvent(ApprovalQueueEvent.Type.PENDING_CHANGED, managerId, null, null));
+            }
+        }
+        log.debug("Approval counters reloaded for {} managers", fresh.size());
+    }
+
+    /**
+     * Moves one request from {@code fromStatus} to {@code toStatus}.
+     */
+    public void move(Integer managerId, Integer leaveTypeId, String fromStatus, String toStatus) {
+        if (managerId == null) {
+            return;
+        }
+        Map<Integer, Map<String, Map<Integer, AtomicLong>>> current = counters;
+        if (fromStatus != null) {
+            AtomicLong from = counter(current, managerId, fromStatus, leaveTypeId);
+            from.updateAndGet(v -> v > 0 ? v - 1 : 0);
+        }
+        if (toStatus != null) {
+            counter(current, managerId, toStatus, leaveTypeId).incrementAndGet();
+        }
+    }
+
+    public long count(Integer managerId, String status, Integer leaveTypeId) {
+        Map<Integer, AtomicLong> byType = byType(managerId, status);
+        if (leaveTypeId != null) {
+            AtomicLong value = byType.get(leaveTypeId);
+            return value != null ? value.get() : 0;
+        }
+        long total = 0;
+        for (AtomicLong value : byType.values()) {
+            total += value.get();
+        }
+        return total;
+    }
+
+    public Map<Integer, Long> countByLeaveType(Integer managerId, String status) {
+        Map<Integer, Long> result = new HashMap<>();
+        byType(managerId, status).forEach((type, value) -> {
+            if (value.get() > 0) {
+                result.put(type, value.get());
+            }
+        });
+        return result;
+    }
+
+    private static long pendingTotal(Map<Integer, Map<String, Map<Integer, AtomicLong>>> map, Integer managerId) {
+        Map<String, Map<Integer, AtomicLong>> byStatus = map.get(managerId);
+        Map<Integer, AtomicLong> byType = byStatus != null ? byStatus.get("Pending") : null;
+        if (byType == null) {
+            return 0;
+        }
+        long total = 0;
+        for (AtomicLong value : byType.values()) {
+            total += value.get();
+        }
+        return total;
+    }
+
+    private Map<Integer, AtomicLong> byType(Integer managerId, String status) {
+        Map<String, Map<Integer, AtomicLong>> byStatus = counters.get(managerId);
+        if (byStatus == null) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, AtomicLong> byType = byStatus.get(status);
+        return byType != null ? byType : Collections.emptyMap();
+    }
+
+    private static AtomicLong counter(Map<Integer, Map<String, Map<Integer, AtomicLong>>> map,
+                                      Integer managerId, String status, Integer leaveTypeId) {
+        // leaveTypeID có thể null (dữ liệu cũ) -> gom vào key 0
+        Integer typeKey = leaveTypeId != null ? leaveTypeId : 0;
+        return map.computeIfAbsent(managerId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(typeKey, k -> new AtomicLong());
+    }
+}
@@ -0,0 +1,110 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.LeaveRequestExportDto;
+import com.hrm.utility.repository.LeaveRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Excel (.xlsx) export of leave request / approval history.
+ * Rows come from a streaming query and go through an SXSSF workbook that keeps only a small
+ * window of rows in memory (older rows are flushed to a temp file), so memory stays constant
+ * regardless of the export size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApprovalExportService {
+
+    private static final int ROW_WINDOW = 100;
+    private static final String[] HEADERS = {
+            "Request ID", "Employee", "Leave Type", "Start Date", "End Date", "Total Days",
+            "Status", "Requested Date", "Decision Date", "Note"
+    };
+
+    private final LeaveRequestRepository leaveRequestRepository;
+
+    @Transactional(readOnly = true)
+    public void writeXlsx(Integer managerId, Integer leaveTypeId, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (Stream<LeaveRequestExportDto> rows = leaveRequestRepository.streamForExport(managerId, leaveTypeId, from, to)) {
+            SXSSFSheet sheet = workbook.createSheet("Leave Requests");
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+            CellStyle dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            sheet.createFreezePane(0, 1);
+
+            int rowIndex = 1;
+            Iterator<LeaveRequestExportDto> it = rows.iterator();
+            while (it.hasNext()) {
+                LeaveRequestExportDto dto = it.next();
+                Row row = sheet.createRow(rowIndex++);
+                row.createCell(0).setCellValue(dto.getLeaveRequestID());
+                setText(row, 1, dto.getEmployeeName());
+                setText(row, 2, dto.getLeaveTypeName());
+                if (dto.getStartDate() != null) {
+                    styledCell(row, 3, dateStyle).setCellValue(dto.getStartDate());
+                }
+                if (dto.getEndDate() != null) {
+                    styledCell(row, 4, dateStyle).setCellValue(dto.getEndDate());
+                }
+                if (dto.getTotalDays() != null) {
+                    row.createCell(5).setCellValue(dto.getTotalDays().doubleValue());
+                }
+                setText(row, 6, dto.getStatus());
+                if (dto.getRequestedDate() != null) {
+                    styledCell(row, 7, dateTimeStyle).setCellValue(dto.getRequestedDate());
+                }
+                if (dto.getApprovedDate() != null) {
+                    styledCell(row, 8, dateTimeStyle).setCellValue(dto.getApprovedDate());
+                }
+                setText(row, 9, dto.getApprovalNote());
+            }
+
+            workbook.write(out);
+            out.flush();
+        } finally {
+            // Xoá file tạm của SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void setText(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+
+    private static Cell styledCell(Row row, int column, CellStyle style) {
+        Cell cell = row.createCell(column);
+        cell.setCellStyle(style);
+        return cell;
+    }
+}
@@ -0,0 +1,23 @@
+package com.hrm.utility.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-process notification that a manager's approval queue changed. Published by
+ * {@link LeaveService} (approve/reject) and {@link ApprovalCounterService} (new pending
+ * requests found on reconciliation), delivered to SSE subscribers by {@link ApprovalStreamService}.
+ */
+@Getter
+@AllArgsConstructor
+public class ApprovalQueueEvent {
+
+    public enum Type {
+        APPROVED, REJECTED, PENDING_CHANGED
+    }
+
+    private final Type type;
+    private final Integer managerId;
+    private final Integer leaveRequestID; // null cho PENDING_CHANGED
+    private final Integer leaveTypeId;
+}
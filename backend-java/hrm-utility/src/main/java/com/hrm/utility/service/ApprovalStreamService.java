@@ -0,0 +1,227 @@
+package com.hrm.utility.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for manager approval queues. Each subscriber is an async {@link SseEmitter}
+ * (no request thread held while idle) with a bounded buffer drained by a small shared pool.
+ * A subscriber whose buffer overflows gets a single "resync" event telling it to refetch.
+ * Total and per-manager connections are capped; a heartbeat keeps proxies from closing idle streams.
+ * <p>
+ * {@code emitter.send} is a blocking servlet write: a client that stops reading (full TCP buffer) holds its
+ * dispatch thread until Tomcat's write timeout. The pool is therefore sized from {@code max-connections}, and
+ * a send that runs longer than {@code send-timeout-ms} drops the subscriber and completes its emitter, which
+ * closes the connection and frees the thread.
+ */
+@Slf4j
+@Service
+public class ApprovalStreamService {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final ApprovalCounterService approvalCounterService;
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    // Đếm riêng theo manager: size() của set rồi add() không nguyên tử giữa các request đồng thời
+    private final Map<Integer, AtomicInteger> perManager = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final int maxConnections;
+    private final int maxPerManager;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+
+    public ApprovalStreamService(ApprovalCounterService approvalCounterService,
+                                 @Value("${hrm.approvals.stream.max-connections:500}") int maxConnections,
+                                 @Value("${hrm.approvals.stream.max-per-manager:10}") int maxPerManager,
+                                 @Value("${hrm.approvals.stream.buffer-size:64}") int bufferSize,
+                                 @Value("${hrm.approvals.stream.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${hrm.approvals.stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.approvalCounterService = approvalCounterService;
+        this.maxConnections = maxConnections;
+        this.maxPerManager = maxPerManager;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        // Một client chậm giữ một thread cho tới khi bị cắt: chừa đủ thread để client khác (và heartbeat) vẫn được gửi
+        int threads = Math.max(2, maxConnections / 25);
+        this.dispatcher = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sse-dispatch-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens a stream for {@code managerId}, or empty when a connection cap is reached.
+     */
+    public Optional<SseEmitter> subscribe(Integer managerId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+        AtomicInteger managerConnections = perManager.computeIfAbsent(managerId, k -> new AtomicInteger());
+        if (managerConnections.incrementAndGet() > maxPerManager) {
+            managerConnections.decrementAndGet();
+            connections.decrementAndGet();
+            return Optional.empty();
+        }
+        Set<Subscriber> forManager = subscribers.computeIfAbsent(managerId, k -> ConcurrentHashMap.newKeySet());
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(managerId, emitter, bufferSize);
+        forManager.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // Trạng thái ban đầu để client không cần gọi /pending chỉ để lấy số lượng
+        subscriber.offer(snapshot(managerId));
+        return Optional.of(emitter);
+    }
+
+    // Sau commit (hoặc ngay lập tức nếu không có transaction)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQueueEvent(ApprovalQueueEvent event) {
+        Set<Subscriber> forManager = subscribers.get(event.getManagerId());
+        if (forManager == null || forManager.isEmpty()) {
+            return;
+        }
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", event.getType());
+        payload.put("managerId", event.getManagerId());
+        payload.put("leaveRequestID", event.getLeaveRequestID());
+        payload.put("leaveTypeId", event.getLeaveTypeId());
+        payload.put("pendingCount", approvalCounterService.count(event.getManagerId(), "Pending", null));
+        forManager.forEach(s -> s.offer(payload));
+    }
+
+    @Scheduled(fixedRateString = "${hrm.approvals.stream.heartbeat-ms:20000}")
+    void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.offer(HEARTBEAT)));
+    }
+
+    // Client không đọc nữa: cắt kết nối để thread đang bị chặn trong send() được giải phóng
+    @Scheduled(fixedRate = 1000)
+    void expireStalledSends() {
+        long now = System.currentTimeMillis();
+        subscribers.values().forEach(set -> set.forEach(s -> {
+            long since = s.sendingSince;
+            if (since != 0 && now - since > sendTimeoutMs) {
+                log.debug("SSE send to manager {} stalled for {} ms, dropping subscriber", s.managerId, now - since);
+                remove(s);
+                s.emitter.completeWithError(new IOException("SSE send timed out"));
+            }
+        }));
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+        dispatcher.shutdownNow();
+    }
+
+    private Map<String, Object> snapshot(Integer managerId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "SNAPSHOT");
+        payload.put("managerId", managerId);
+        payload.put("pendingCount", approvalCounterService.count(managerId, "Pending", null));
+        payload.put("pendingByLeaveType", approvalCounterService.countByLeaveType(managerId, "Pending"));
+        return payload;
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> forManager = subscribers.get(subscriber.managerId);
+        if (forManager != null && forManager.remove(subscriber)) {
+            perManager.get(subscriber.managerId).decrementAndGet();
+            connections.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber {
+        final Integer managerId;
+        final SseEmitter emitter;
+        final Queue<Object> buffer;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean overflowed;
+        volatile long sendingSince; // 0 = không đang gửi
+
+        Subscriber(Integer managerId, SseEmitter emitter, int bufferSize) {
+            this.managerId = managerId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Object event) {
+            if (!buffer.offer(event)) {
+                // Client quá chậm: bỏ các delta đang chờ, gửi một sự kiện "resync" thay thế
+                overflowed = true;
+                buffer.clear();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed) {
+                    overflowed = false;
+                    send(SseEmitter.event().name("resync").data(Map.of("managerId", managerId)));
+                }
+                Object event;
+                while ((event = buffer.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        send(SseEmitter.event().name("approval").data(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE subscriber for manager {} disconnected", managerId);
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // Sự kiện đến trong lúc đang gửi
+            if ((!buffer.isEmpty() || overflowed) && scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendingSince = System.currentTimeMillis();
+            try {
+                emitter.send(event);
+            } finally {
+                sendingSince = 0;
+            }
+        }
+    }
+}
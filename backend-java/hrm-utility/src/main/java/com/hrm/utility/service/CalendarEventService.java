@@ -1,70 +1,200 @@
 package com.hrm.utility.service;
 
 import com.hrm.utility.entity.CalendarEvent;
-import com.hrm.utility.entity.Holiday;
 import com.hrm.utility.repository.CalendarEventRepository;
-import com.hrm.utility.repository.HolidayRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class CalendarEventService {
 
+    // Giới hạn số lần xảy ra trả về cho một chuỗi trong một lần đọc (vd. sự kiện hằng ngày với khoảng nhiều năm)
+    private static final int MAX_OCCURRENCES_PER_SERIES = 2000;
+
     private final CalendarEventRepository calendarEventRepository;
-    private final HolidayRepository holidayRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final FreeBusyService freeBusyService;
+
+    // Version stamps for ETags: per user (own/created events) and shared (HOLIDAY events visible to everyone)
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    private final AtomicLong sharedVersion = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Changes whenever anything in the user's calendar feed may have changed.
+     */
+    public String getFeedVersion(Long userId) {
+        AtomicLong userVersion = userVersions.get(userId);
+        return (userVersion != null ? userVersion.get() : 0) + "." + sharedVersion.get() + "." + holidayCalendarIndex.version();
+    }
 
+    /**
+     * Legacy feed without a range: every stored event of the user, as before; only recurring series and
+     * holidays, which have no natural end, are laid out in the previous, current and next year.
+     */
     public List<CalendarEvent> getEventsForUser(Long userId) {
-        List<CalendarEvent> events = calendarEventRepository.findRelevantEvents(userId, CalendarEvent.EventType.HOLIDAY);
-        List<Holiday> holidays = holidayRepository.findAll();
-
-        List<CalendarEvent> allEvents = new ArrayList<>(events);
-        
-        // Map holidays to CalendarEvent for unified UI display
-        int currentYear = java.time.LocalDate.now().getYear();
-        holidays.forEach(h -> {
-            if (h.isRecurring()) {
-                // Show in previous, current and next year for navigation
-                for (int year = currentYear - 1; year <= currentYear + 1; year++) {
-                    allEvents.add(CalendarEvent.builder()
-                            .eventID(h.getHolidayID() + 100000 + (year * 100))
-                            .title(h.getName())
-                            .description(h.getDescription())
-                            .startTime(h.getHolidayDate().withYear(year).atStartOfDay())
-                            .endTime(h.getHolidayDate().withYear(year).atTime(23, 59, 59))
-                            .eventType(CalendarEvent.EventType.HOLIDAY)
-                            .color("#ef4444")
-                            .build());
-                }
+        int currentYear = LocalDate.now().getYear();
+        return toFeed(calendarEventRepository.findRelevantEvents(userId, CalendarEvent.EventType.HOLIDAY),
+                LocalDate.of(currentYear - 1, 1, 1), LocalDate.of(currentYear + 1, 12, 31));
+    }
+
+    public List<CalendarEvent> getEventsForUser(Long userId, LocalDate from, LocalDate to) {
+        return toFeed(calendarEventRepository.findRelevantEventsInRange(
+                userId, CalendarEvent.EventType.HOLIDAY, from.atStartOfDay(), to.atTime(LocalTime.MAX)), from, to);
+    }
+
+    // Trải chuỗi lặp lại và thêm ngày lễ trong [from, to]; sự kiện thường giữ nguyên
+    private List<CalendarEvent> toFeed(List<CalendarEvent> events, LocalDate from, LocalDate to) {
+        LocalDateTime windowStart = from.atStartOfDay();
+        LocalDateTime windowEnd = to.atTime(LocalTime.MAX);
+        List<CalendarEvent> allEvents = new ArrayList<>(events.size());
+        for (CalendarEvent event : events) {
+            if (event.getRecurrenceRule() == null) {
+                allEvents.add(event);
             } else {
-                allEvents.add(CalendarEvent.builder()
-                        .eventID(h.getHolidayID() + 100000)
-                        .title(h.getName())
-                        .description(h.getDescription())
-                        .startTime(h.getHolidayDate().atStartOfDay())
-                        .endTime(h.getHolidayDate().atTime(23, 59, 59))
-                        .eventType(CalendarEvent.EventType.HOLIDAY)
-                        .color("#ef4444")
-                        .build());
+                expandSeries(event, windowStart, windowEnd, allEvents);
             }
-        });
+        }
+
+        // Map holidays to CalendarEvent for unified UI display, only for dates inside the window
+        holidayCalendarIndex.forEachOccurrence(from, to, (h, date) -> allEvents.add(CalendarEvent.builder()
+                .eventID(h.isRecurring() ? h.getHolidayID() + 100000 + (date.getYear() * 100) : h.getHolidayID() + 100000)
+                .title(h.getName())
+                .description(h.getDescription())
+                .startTime(date.atStartOfDay())
+                .endTime(date.atTime(23, 59, 59))
+                .eventType(CalendarEvent.EventType.HOLIDAY)
+                .color("#ef4444")
+                .build()));
 
         return allEvents;
     }
 
+    /**
+     * Adds the occurrences of a recurring series that overlap the window, each as a copy with its own start/end.
+     * A copy has no eventID of its own; it is identified by seriesId + occurrenceDate and keeps the series'
+     * rule, exceptions and end for display.
+     */
+    private static void expandSeries(CalendarEvent series, LocalDateTime windowStart, LocalDateTime windowEnd, List<CalendarEvent> out) {
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRecurrenceRule());
+        long[] exceptions = RecurrenceRule.parseExceptions(series.getRecurrenceExceptions());
+        Duration duration = Duration.between(series.getStartTime(), series.getEndTime());
+        rule.forEachOccurrence(series.getStartTime(), series.getEndTime(), exceptions, windowStart, windowEnd,
+                MAX_OCCURRENCES_PER_SERIES, start -> out.add(CalendarEvent.builder()
+                        .seriesId(series.getEventID())
+                        .occurrenceDate(start.toLocalDate())
+                        .title(series.getTitle())
+                        .description(series.getDescription())
+                        .startTime(start)
+                        .endTime(start.plus(duration))
+                        .eventType(series.getEventType())
+                        .userID(series.getUserID())
+                        .createdBy(series.getCreatedBy())
+                        .color(series.getColor())
+                        .recurrenceRule(series.getRecurrenceRule())
+                        .recurrenceExceptions(series.getRecurrenceExceptions())
+                        .recurrenceEnd(series.getRecurrenceEnd())
+                        .createdAt(series.getCreatedAt())
+                        .build()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the recurrence rule or exception dates are invalid, or the event is
+     *                                  one expanded occurrence of a series rather than the series itself
+     */
     public CalendarEvent saveEvent(CalendarEvent event) {
+        if (event.getEventID() == null && event.getSeriesId() != null) {
+            // Lưu lại một lần xảy ra sẽ tạo thêm một chuỗi mới bắt đầu từ ngày đó
+            throw new IllegalArgumentException("This is one occurrence of series " + event.getSeriesId()
+                    + "; update the series itself or skip the occurrence via /" + event.getSeriesId() + "/exceptions");
+        }
+        normalizeRecurrence(event);
         if (event.getEventType() == CalendarEvent.EventType.PERSONAL) {
             event.setColor("#3b82f6"); // Blue for personal
         } else if (event.getEventType() == CalendarEvent.EventType.DEADLINE) {
             event.setColor("#f97316"); // Orange for deadlines
         }
-        return calendarEventRepository.save(event);
+        if (event.getEventID() != null) {
+            // Update: the previous owner/type may differ from the new one
+            // Gỡ khỏi index free/busy trước khi save: entity đang quản lý sẽ bị ghi đè bằng giá trị mới
+            calendarEventRepository.findById(event.getEventID()).ifPresent(previous -> {
+                bumpVersions(previous);
+                freeBusyService.removeEvent(previous);
+            });
+        }
+        CalendarEvent saved = calendarEventRepository.save(event);
+        bumpVersions(saved);
+        freeBusyService.addEvent(saved);
+        return saved;
+    }
+
+    /**
+     * Skips one occurrence of a recurring series ("delete this occurrence only").
+     *
+     * @return false if the event does not exist or is not recurring
+     */
+    public boolean addRecurrenceException(Long id, LocalDate date) {
+        return calendarEventRepository.findById(id)
+                .filter(event -> event.getRecurrenceRule() != null)
+                .map(event -> {
+                    String exceptions = event.getRecurrenceExceptions();
+                    event.setRecurrenceExceptions(RecurrenceRule.normalizeExceptions(
+                            exceptions == null ? date.toString() : exceptions + "," + date));
+                    calendarEventRepository.save(event);
+                    bumpVersions(event);
+                    freeBusyService.addEvent(event);
+                    return true;
+                })
+                .orElse(false);
     }
 
     public void deleteEvent(Long id) {
-        calendarEventRepository.deleteById(id);
+        calendarEventRepository.findById(id).ifPresent(event -> {
+            calendarEventRepository.delete(event);
+            bumpVersions(event);
+            freeBusyService.removeEvent(event);
+        });
+    }
+
+    // Lưu rule ở dạng chuẩn và tính RecurrenceEnd; sự kiện không lặp thì xóa các cột recurrence
+    private static void normalizeRecurrence(CalendarEvent event) {
+        if (event.getRecurrenceRule() == null || event.getRecurrenceRule().isBlank()) {
+            event.setRecurrenceRule(null);
+            event.setRecurrenceExceptions(null);
+            event.setRecurrenceEnd(null);
+            return;
+        }
+        if (event.getStartTime() == null || event.getEndTime() == null || event.getEndTime().isBefore(event.getStartTime())) {
+            throw new IllegalArgumentException("A recurring event needs startTime <= endTime");
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(event.getRecurrenceRule());
+        event.setRecurrenceRule(rule.toString());
+        event.setRecurrenceExceptions(RecurrenceRule.normalizeExceptions(event.getRecurrenceExceptions()));
+        event.setRecurrenceEnd(rule.seriesEnd(event.getStartTime(), event.getEndTime()));
+    }
+
+    private void bumpVersions(CalendarEvent event) {
+        if (event.getEventType() == CalendarEvent.EventType.HOLIDAY) {
+            sharedVersion.incrementAndGet();
+        }
+        bumpUser(event.getUserID());
+        bumpUser(event.getCreatedBy());
+    }
+
+    private void bumpUser(Long userId) {
+        if (userId != null) {
+            // Seed with the current time so ETags differ across restarts
+            userVersions.computeIfAbsent(userId, k -> new AtomicLong(System.currentTimeMillis())).incrementAndGet();
+        }
     }
 }
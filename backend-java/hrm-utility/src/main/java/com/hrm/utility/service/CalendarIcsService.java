@@ -0,0 +1,151 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.CalendarEvent;
+import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.repository.CalendarEventRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * iCalendar (RFC 5545) feed for Outlook / Google subscriptions. Stored events are streamed from
+ * a database cursor and written one by one; each recurring holiday is emitted once with
+ * RRULE:FREQ=YEARLY instead of one copy per year. Event times are stored as Vietnam local time and
+ * written with TZID=Asia/Ho_Chi_Minh (defined in a VTIMEZONE block), so clients in other zones show
+ * them at the right instant; RRULE UNTIL is written in UTC as RFC 5545 requires with a TZID start.
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarIcsService {
+
+    // Events that ended more than this long ago are left out of the feed
+    private static final int HISTORY_YEARS = 1;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final String CRLF = "\r\n";
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final String TZID = ";TZID=" + ZONE.getId() + ":";
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void writeFeed(Long userId, Writer out) throws IOException {
+        String stamp = LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+
+        line(out, "BEGIN:VCALENDAR");
+        line(out, "VERSION:2.0");
+        line(out, "PRODID:-//LeaveFlow//HRM Utility//EN");
+        line(out, "CALSCALE:GREGORIAN");
+        line(out, "METHOD:PUBLISH");
+        line(out, "X-WR-CALNAME:LeaveFlow");
+        line(out, "X-WR-TIMEZONE:" + ZONE.getId());
+        // UTC+7 cố định, không có giờ mùa hè
+        line(out, "BEGIN:VTIMEZONE");
+        line(out, "TZID:" + ZONE.getId());
+        line(out, "BEGIN:STANDARD");
+        line(out, "DTSTART:19700101T000000");
+        line(out, "TZOFFSETFROM:+0700");
+        line(out, "TZOFFSETTO:+0700");
+        line(out, "TZNAME:ICT");
+        line(out, "END:STANDARD");
+        line(out, "END:VTIMEZONE");
+
+        for (Holiday h : holidayCalendarIndex.all()) {
+            line(out, "BEGIN:VEVENT");
+            line(out, "UID:holiday-" + h.getHolidayID() + "@hrm-utility");
+            line(out, "DTSTAMP:" + stamp);
+            line(out, "DTSTART;VALUE=DATE:" + h.getHolidayDate().format(DATE));
+            line(out, "DTEND;VALUE=DATE:" + h.getHolidayDate().plusDays(1).format(DATE));
+            if (h.isRecurring()) {
+                line(out, "RRULE:FREQ=YEARLY");
+            }
+            line(out, "SUMMARY:" + escape(h.getName()));
+            if (h.getDescription() != null) {
+                line(out, "DESCRIPTION:" + escape(h.getDescription()));
+            }
+            line(out, "CATEGORIES:HOLIDAY");
+            line(out, "TRANSP:TRANSPARENT");
+            line(out, "END:VEVENT");
+        }
+
+        LocalDateTime since = LocalDate.now().minusYears(HISTORY_YEARS).atStartOfDay();
+        try (Stream<CalendarEvent> events = calendarEventRepository.streamRelevantEventsSince(
+                userId, CalendarEvent.EventType.HOLIDAY, since)) {
+            Iterator<CalendarEvent> it = events.iterator();
+            while (it.hasNext()) {
+                CalendarEvent e = it.next();
+                line(out, "BEGIN:VEVENT");
+                line(out, "UID:event-" + e.getEventID() + "@hrm-utility");
+                line(out, "DTSTAMP:" + stamp);
+                line(out, "DTSTART" + TZID + e.getStartTime().format(DATE_TIME));
+                line(out, "DTEND" + TZID + e.getEndTime().format(DATE_TIME));
+                if (e.getRecurrenceRule() != null) {
+                    // Chuỗi lặp lại: client lịch tự sinh các lần xảy ra
+                    line(out, "RRULE:" + RecurrenceRule.parse(e.getRecurrenceRule()).toIcs(ZONE));
+                    for (long day : RecurrenceRule.parseExceptions(e.getRecurrenceExceptions())) {
+                        line(out, "EXDATE" + TZID + LocalDate.ofEpochDay(day).atTime(e.getStartTime().toLocalTime()).format(DATE_TIME));
+                    }
+                }
+                line(out, "SUMMARY:" + escape(e.getTitle()));
+                if (e.getDescription() != null) {
+                    line(out, "DESCRIPTION:" + escape(e.getDescription()));
+                }
+                line(out, "CATEGORIES:" + e.getEventType());
+                line(out, "END:VEVENT");
+                // Không giữ entity trong persistence context khi stream
+                entityManager.detach(e);
+            }
+        }
+
+        line(out, "END:VCALENDAR");
+        out.flush();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    // Content lines are folded at 75 octets (RFC 5545 §3.1), continuation lines start with a space
+    private static void line(Writer out, String content) throws IOException {
+        if (content.getBytes(StandardCharsets.UTF_8).length <= 75) {
+            out.write(content);
+            out.write(CRLF);
+            return;
+        }
+        int octets = 0;
+        int limit = 75;
+        for (int i = 0; i < content.length(); ) {
+            int cp = content.codePointAt(i);
+            int size = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + size > limit) {
+                out.write(CRLF);
+                out.write(' ');
+                octets = 1;
+                limit = 75;
+            }
+            out.write(Character.toChars(cp));
+            octets += size;
+            i += Character.charCount(cp);
+        }
+        out.write(CRLF);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hrm.utility.service;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * One asynchronous document-generation job tracked by {@link DocumentJobService}.
+ */
+@Getter
+public class DocumentJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String jobId;
+    private final String fileName;
+    private final Instant createdAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant completedAt;
+    private volatile Path resultPath;
+    private volatile String error;
+
+    DocumentJob(String jobId, String fileName) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.createdAt = Instant.now();
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markDone(Path path) {
+        resultPath = path;
+        completedAt = Instant.now();
+        status = Status.DONE;
+    }
+
+    void markFailed(String message) {
+        error = message;
+        completedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,138 @@
+package com.hrm.utility.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous PDF generation. Jobs are rendered by a small bounded executor (off the Tomcat
+ * request threads) into a local spool directory; clients poll the job and download the file.
+ * Finished jobs and their files are removed after a TTL.
+ */
+@Slf4j
+@Service
+public class DocumentJobService {
+
+    private final DocumentService documentService;
+    private final Path spoolDir;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, DocumentJob> jobs = new ConcurrentHashMap<>();
+
+    public DocumentJobService(DocumentService documentService,
+                              @Value("${hrm.documents.jobs.spool-dir:${java.io.tmpdir}/hrm-document-jobs}") String spoolDir,
+                              @Value("${hrm.documents.jobs.ttl-minutes:30}") long ttlMinutes,
+                              @Value("${hrm.documents.jobs.threads:2}") int threads,
+                              @Value("${hrm.documents.jobs.queue-capacity:100}") int queueCapacity) {
+        this.documentService = documentService;
+        this.spoolDir = Paths.get(spoolDir);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        AtomicInteger counter = new AtomicInteger();
+        // Hàng đợi có giới hạn: khi đầy, submit ném RejectedExecutionException (controller trả 503)
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "pdf-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(spoolDir);
+        // Registry nằm trong RAM nên file của lần chạy trước không còn job nào trỏ tới
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spoolDir, "*.pdf*")) {
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Queues a leave-form render and returns the job immediately.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when the queue is full
+     */
+    public DocumentJob submitLeavePdf(Map<String, Object> data) {
+        String jobId = UUID.randomUUID().toString();
+        DocumentJob job = new DocumentJob(jobId, "leave_application.pdf");
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> render(job, data));
+        } catch (RuntimeException e) {
+            jobs.remove(jobId);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<DocumentJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void render(DocumentJob job, Map<String, Object> data) {
+        job.markRunning();
+        Path target = spoolDir.resolve(job.getJobId() + ".pdf");
+        Path partial = spoolDir.resolve(job.getJobId() + ".pdf.part");
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                documentService.writeLeavePdf(data, out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.markDone(target);
+        } catch (IOException | RuntimeException e) {
+            log.error("Document job {} failed", job.getJobId(), e);
+            deleteQuietly(partial);
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    // Dọn job đã xong quá TTL (kể cả file trên đĩa)
+    @Scheduled(fixedDelayString = "${hrm.documents.jobs.cleanup-interval-ms:60000}")
+    void evictExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> {
+            if (job.getCompletedAt() == null || job.getCompletedAt().isAfter(cutoff)) {
+                return false;
+            }
+            if (job.getResultPath() != null) {
+                deleteQuietly(job.getResultPath());
+            }
+            return true;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", path, e);
+        }
+    }
+}
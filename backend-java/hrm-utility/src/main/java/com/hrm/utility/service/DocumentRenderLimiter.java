@@ -0,0 +1,103 @@
+package com.hrm.utility.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps concurrent synchronous PDF renders (POST /api/documents/generate/leave-pdf) so a burst cannot
+ * take every CPU away from the other APIs. Up to {@code max-concurrent} renders run at once, up to
+ * {@code queue-size} more requests wait at most {@code max-wait-ms} for a slot, and the rest are
+ * rejected immediately so the controller can answer 503 with Retry-After.
+ */
+@Component
+public class DocumentRenderLimiter {
+
+    private final Semaphore permits;
+    private final int queueSize;
+    private final long maxWaitMs;
+    private final int retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public DocumentRenderLimiter(MeterRegistry meterRegistry,
+                                 @Value("${hrm.documents.pdf.max-concurrent:4}") int maxConcurrent,
+                                 @Value("${hrm.documents.pdf.queue-size:16}") int queueSize,
+                                 @Value("${hrm.documents.pdf.max-wait-ms:2000}") long maxWaitMs,
+                                 @Value("${hrm.documents.pdf.retry-after-seconds:2}") int retryAfterSeconds) {
+        this.permits = new Semaphore(maxConcurrent, true); // fair: waiting requests are served in order
+        this.queueSize = queueSize;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Gauge.builder("hrm.documents.pdf.inflight", inFlight, AtomicInteger::get)
+                .description("Synchronous PDF renders in progress")
+                .register(meterRegistry);
+        Gauge.builder("hrm.documents.pdf.queued", queued, AtomicInteger::get)
+                .description("Synchronous PDF requests waiting for a render slot")
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("hrm.documents.pdf.rejected")
+                .description("Synchronous PDF requests shed by the concurrency limit")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a render slot, waiting briefly if all are busy. Every {@code true} must be paired with {@link #release()}.
+     *
+     * @return false if the wait queue is full or no slot freed up in time
+     */
+    public boolean tryAcquire() {
+        // tryAcquire() không tham số bỏ qua fairness và chen trước các request đang chờ;
+        // timeout 0 thì chỉ lấy được slot khi không ai xếp hàng trước
+        try {
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeout.increment();
+            return false;
+        }
+        // Giữ hàng đợi ngắn: quá queue-size thì từ chối ngay, không chiếm thêm thread Tomcat
+        if (queued.incrementAndGet() > queueSize) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        rejectedTimeout.increment();
+        return false;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,172 +1,233 @@
 package com.hrm.utility.service;
 
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 public interface DocumentService {
     byte[] generateLeavePdf(Map<String, Object> data);
+
+    /**
+     * Renders the leave form straight into {@code out} (e.g. the servlet response stream).
+     * The stream is flushed but not closed.
+     */
+    void writeLeavePdf(Map<String, Object> data, OutputStream out);
 }
 
 @Service
 class DocumentServiceImpl implements DocumentService {
 
+    private final Timer renderTimer;
+    private final DistributionSummary pdfSize;
+
+    DocumentServiceImpl(MeterRegistry meterRegistry) {
+        this.renderTimer = Timer.builder("hrm.documents.pdf.render")
+                .description("Leave form PDF render time")
+                .tag("document", "leave-form")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pdfSize = DistributionSummary.builder("hrm.documents.pdf.size")
+                .description("Leave form PDF size")
+                .baseUnit("bytes")
+                .tag("document", "leave-form")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // ---- Static template: built once, shared by every render ----
+    // iText layout elements keep per-document renderer state, so the reusable parts of the
+    // form are kept as immutable Style objects and constant texts/column widths.
+    private static final Color HEADER_COLOR = ColorConstants.DARK_GRAY;
+    private static final Color ACCENT_COLOR = new DeviceRgb(19, 127, 236); // Blue
+    private static final Color LABEL_BACKGROUND = new DeviceRgb(240, 240, 240);
+    private static final Color SHADED_ROW = new DeviceRgb(245, 245, 245);
+    private static final SolidBorder ROW_BORDER = new SolidBorder(0.5f);
+    private static final SolidBorder SIGN_BORDER = new SolidBorder(1);
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' hh:mm a");
+    private static final float[] TWO_COLUMNS_35_65 = {35, 65};
+    private static final float[] TWO_COLUMNS_50_50 = {50, 50};
+
+    private static final String TITLE = "LEAVE APPLICATION FORM";
+    private static final String COMPANY = "LeaveFlow - Human Resource Management System";
+    private static final String EMPLOYEE_SIGNATURE = "Employee Signature:\n\n\n_______________________\nDate: _______________";
+    private static final String MANAGER_SIGNATURE = "Manager/Approver Signature:\n\n\n_______________________\nDate: _______________";
+    private static final String FOOTER = "This is a system-generated document. No signature is required for electronic submission.";
+
+    private static final Style TITLE_STYLE = new Style()
+            .setBold()
+            .setFontSize(24)
+            .setFontColor(ColorConstants.WHITE)
+            .setBackgroundColor(ACCENT_COLOR)
+            .setPadding(15)
+            .setMarginBottom(10);
+    private static final Style COMPANY_STYLE = new Style()
+            .setFontSize(10)
+            .setFontColor(HEADER_COLOR)
+            .setMarginBottom(5);
+    private static final Style DATE_STYLE = new Style()
+            .setFontSize(9)
+            .setFontColor(HEADER_COLOR)
+            .setItalic()
+            .setMarginBottom(20);
+    private static final Style SECTION_STYLE = new Style()
+            .setBold()
+            .setFontSize(14)
+            .setFontColor(ACCENT_COLOR)
+            .setMarginBottom(10);
+    private static final Style APPROVAL_SECTION_STYLE = new Style()
+            .setBold()
+            .setFontSize(14)
+            .setFontColor(ACCENT_COLOR)
+            .setMarginTop(20)
+            .setMarginBottom(15);
+    private static final Style INFO_LABEL_STYLE = new Style()
+            .setBackgroundColor(LABEL_BACKGROUND)
+            .setPadding(8);
+    private static final Style INFO_VALUE_STYLE = new Style()
+            .setPadding(8);
+    private static final Style SHADED_CELL_STYLE = new Style()
+            .setBackgroundColor(SHADED_ROW)
+            .setPadding(8)
+            .setBorder(ROW_BORDER);
+    private static final Style PLAIN_CELL_STYLE = new Style()
+            .setBackgroundColor(ColorConstants.WHITE)
+            .setPadding(8)
+            .setBorder(ROW_BORDER);
+    private static final Style SIGN_CELL_STYLE = new Style()
+            .setPadding(15)
+            .setBorder(SIGN_BORDER);
+    private static final Style FOOTER_STYLE = new Style()
+            .setFontSize(8)
+            .setFontColor(HEADER_COLOR)
+            .setItalic()
+            .setTextAlignment(TextAlignment.CENTER)
+            .setMarginTop(20);
+
     @Override
     public byte[] generateLeavePdf(Map<String, Object> data) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        try {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            // Add colors
-            com.itextpdf.kernel.colors.Color headerColor = com.itextpdf.kernel.colors.ColorConstants.DARK_GRAY;
-            com.itextpdf.kernel.colors.Color accentColor = new com.itextpdf.kernel.colors.DeviceRgb(19, 127, 236); // Blue
-            
+        writeLeavePdf(data, baos);
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void writeLeavePdf(Map<String, Object> data, OutputStream out) {
+        CountingOutputStream counted = new CountingOutputStream(out);
+        renderTimer.record(() -> render(data, counted));
+        pdfSize.record(counted.count);
+    }
+
+    private void render(Map<String, Object> data, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+
+        try (Document document = new Document(pdf)) {
             // Header Section with background
-            Paragraph header = new Paragraph("LEAVE APPLICATION FORM")
-                .setBold()
-                .setFontSize(24)
-                .setFontColor(com.itextpdf.kernel.colors.ColorConstants.WHITE)
-                .setBackgroundColor(accentColor)
-                .setPadding(15)
-                .setMarginBottom(10);
-            document.add(header);
-
-            // Company info
-            Paragraph companyInfo = new Paragraph("LeaveFlow - Human Resource Management System")
-                .setFontSize(10)
-                .setFontColor(headerColor)
-                .setMarginBottom(5);
-            document.add(companyInfo);
-
-            // Generated date with better formatting
-            java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("MMMM dd, yyyy 'at' hh:mm a");
-            String formattedDate = java.time.LocalDateTime.now().format(formatter);
-            Paragraph dateInfo = new Paragraph("Generated on: " + formattedDate)
-                .setFontSize(9)
-                .setFontColor(headerColor)
-                .setItalic()
-                .setMarginBottom(20);
-            document.add(dateInfo);
+            document.add(new Paragraph(TITLE).addStyle(TITLE_STYLE));
+            document.add(new Paragraph(COMPANY).addStyle(COMPANY_STYLE));
+            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(GENERATED_FORMAT)).addStyle(DATE_STYLE));
 
             // Employee Information Section
-            Paragraph sectionHeader1 = new Paragraph("Employee Information")
-                .setBold()
-                .setFontSize(14)
-                .setFontColor(accentColor)
-                .setMarginBottom(10);
-            document.add(sectionHeader1);
-
-            Table infoTable = new Table(UnitValue.createPercentArray(new float[]{35, 65}));
+            document.add(new Paragraph("Employee Information").addStyle(SECTION_STYLE));
+
+            Table infoTable = new Table(UnitValue.createPercentArray(TWO_COLUMNS_35_65));
             infoTable.setWidth(UnitValue.createPercentValue(100));
             infoTable.setMarginBottom(20);
-
-            // Style for label cells
-            com.itextpdf.layout.element.Cell labelCell1 = new com.itextpdf.layout.element.Cell()
-                .add(new Paragraph("Employee Name:").setBold())
-                .setBackgroundColor(new com.itextpdf.kernel.colors.DeviceRgb(240, 240, 240))
-                .setPadding(8);
-            infoTable.addCell(labelCell1);
-            
-            com.itextpdf.layout.element.Cell valueCell1 = new com.itextpdf.layout.element.Cell()
-                .add(new Paragraph(data.getOrDefault("employeeName", "N/A").toString()))
-                .setPadding(8);
-            infoTable.addCell(valueCell1);
-
+            infoTable.addCell(new Cell().add(new Paragraph("Employee Name:").setBold()).addStyle(INFO_LABEL_STYLE));
+            infoTable.addCell(new Cell().add(new Paragraph(valueOf(data, "employeeName"))).addStyle(INFO_VALUE_STYLE));
             document.add(infoTable);
 
             // Leave Details Section
-            Paragraph sectionHeader2 = new Paragraph("Leave Details")
-                .setBold()
-                .setFontSize(14)
-                .setFontColor(accentColor)
-                .setMarginBottom(10);
-            document.add(sectionHeader2);
-
-            Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{35, 65}));
+            document.add(new Paragraph("Leave Details").addStyle(SECTION_STYLE));
+
+            Table detailsTable = new Table(UnitValue.createPercentArray(TWO_COLUMNS_35_65));
             detailsTable.setWidth(UnitValue.createPercentValue(100));
 
             // Add rows with alternating background
-            addTableRow(detailsTable, "Leave Type:", data.getOrDefault("leaveType", "N/A").toString(), true);
-            addTableRow(detailsTable, "Start Date:", data.getOrDefault("startDate", "N/A").toString(), false);
-            addTableRow(detailsTable, "End Date:", data.getOrDefault("endDate", "N/A").toString(), true);
-            addTableRow(detailsTable, "Total Days:", data.getOrDefault("totalDays", "N/A").toString(), false);
-            addTableRow(detailsTable, "Reason:", data.getOrDefault("reason", "N/A").toString(), true);
+            addTableRow(detailsTable, "Leave Type:", valueOf(data, "leaveType"), true);
+            addTableRow(detailsTable, "Start Date:", valueOf(data, "startDate"), false);
+            addTableRow(detailsTable, "End Date:", valueOf(data, "endDate"), true);
+            addTableRow(detailsTable, "Total Days:", valueOf(data, "totalDays"), false);
+            addTableRow(detailsTable, "Reason:", valueOf(data, "reason"), true);
 
             document.add(detailsTable);
 
             // Approval Section
             document.add(new Paragraph("\n"));
-            Paragraph approvalHeader = new Paragraph("Approval Section")
-                .setBold()
-                .setFontSize(14)
-                .setFontColor(accentColor)
-                .setMarginTop(20)
-                .setMarginBottom(15);
-            document.add(approvalHeader);
+            document.add(new Paragraph("Approval Section").addStyle(APPROVAL_SECTION_STYLE));
 
             // Signature boxes
-            Table signatureTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+            Table signatureTable = new Table(UnitValue.createPercentArray(TWO_COLUMNS_50_50));
             signatureTable.setWidth(UnitValue.createPercentValue(100));
-
-            com.itextpdf.layout.element.Cell employeeSignCell = new com.itextpdf.layout.element.Cell()
-                .add(new Paragraph("Employee Signature:\n\n\n_______________________\nDate: _______________"))
-                .setPadding(15)
-                .setBorder(new com.itextpdf.layout.borders.SolidBorder(1));
-            signatureTable.addCell(employeeSignCell);
-
-            com.itextpdf.layout.element.Cell managerSignCell = new com.itextpdf.layout.element.Cell()
-                .add(new Paragraph("Manager/Approver Signature:\n\n\n_______________________\nDate: _______________"))
-                .setPadding(15)
-                .setBorder(new com.itextpdf.layout.borders.SolidBorder(1));
-            signatureTable.addCell(managerSignCell);
-
+            signatureTable.addCell(new Cell().add(new Paragraph(EMPLOYEE_SIGNATURE)).addStyle(SIGN_CELL_STYLE));
+            signatureTable.addCell(new Cell().add(new Paragraph(MANAGER_SIGNATURE)).addStyle(SIGN_CELL_STYLE));
             document.add(signatureTable);
 
             // Footer
             document.add(new Paragraph("\n"));
-            Paragraph footer = new Paragraph("This is a system-generated document. No signature is required for electronic submission.")
-                .setFontSize(8)
-                .setFontColor(headerColor)
-                .setItalic()
-                .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER)
-                .setMarginTop(20);
-            document.add(footer);
-
-            document.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+            document.add(new Paragraph(FOOTER).addStyle(FOOTER_STYLE));
         }
 
-        return baos.toByteArray();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String valueOf(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        return value != null ? value.toString() : "N/A";
     }
 
     private void addTableRow(Table table, String label, String value, boolean shaded) {
-        com.itextpdf.kernel.colors.Color bgColor = shaded ? 
-            new com.itextpdf.kernel.colors.DeviceRgb(245, 245, 245) : 
-            com.itextpdf.kernel.colors.ColorConstants.WHITE;
+        Style cellStyle = shaded ? SHADED_CELL_STYLE : PLAIN_CELL_STYLE;
+        table.addCell(new Cell().add(new Paragraph(label).setBold()).addStyle(cellStyle));
+        table.addCell(new Cell().add(new Paragraph(value)).addStyle(cellStyle));
+    }
 
-        com.itextpdf.layout.element.Cell labelCell = new com.itextpdf.layout.element.Cell()
-            .add(new Paragraph(label).setBold())
-            .setBackgroundColor(bgColor)
-            .setPadding(8)
-            .setBorder(new com.itextpdf.layout.borders.SolidBorder(0.5f));
-        table.addCell(labelCell);
+    // Đếm số byte đã ghi để đo kích thước PDF mà không cần buffer
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
 
-        com.itextpdf.layout.element.Cell valueCell = new com.itextpdf.layout.element.Cell()
-            .add(new Paragraph(value))
-            .setBackgroundColor(bgColor)
-            .setPadding(8)
-            .setBorder(new com.itextpdf.layout.borders.SolidBorder(0.5f));
-        table.addCell(valueCell);
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
     }
 }
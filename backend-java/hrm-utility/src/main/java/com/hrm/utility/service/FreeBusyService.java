@@ -0,0 +1,575 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.CalendarEvent;
+import com.hrm.utility.entity.TimeIntervalDto;
+import com.hrm.utility.repository.CalendarEventRepository;
+import com.hrm.utility.repository.LeaveRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Free/busy index: per user, the union of their calendar events and approved leave as sorted,
+ * disjoint interval arrays, so "is X busy in [from, to)" is one binary search and a group free-slot
+ * search is a k-way merge starting from one binary search per user.
+ * <p>
+ * HOLIDAY events are busy for everyone and live in a shared schedule. Recurring series are expanded
+ * inside the indexed window (history-days back, horizon-days ahead), which rolls forward with the daily rebuild.
+ * Writes are incremental (event save/delete, leave approval) and replace one user's immutable schedule;
+ * readers never lock. A write sorts only the changed intervals and merges them into the user's sorted
+ * bounds, so it costs O(n + k log k) for n indexed and k changed intervals.
+ * <p>
+ * Leave cancelled or revoked outside this service publishes no event here: approved leave is reconciled
+ * against the database every {@code hrm.freebusy.leave-refresh-ms}, so such leave stays busy until then.
+ */
+@Slf4j
+@Service
+public class FreeBusyService {
+
+    private static final Long SHARED = -1L;
+    private static final int MAX_OCCURRENCES_PER_SERIES = 5000;
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final WorkingDayCalendar workingDayCalendar;
+    private final int historyDays;
+    private final int horizonDays;
+
+    private volatile Map<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    private volatile LocalDateTime indexStart;
+    private volatile LocalDateTime indexEnd;
+
+    public FreeBusyService(CalendarEventRepository calendarEventRepository,
+                           LeaveRequestRepository leaveRequestRepository,
+                           WorkingDayCalendar workingDayCalendar,
+                           @Value("${hrm.freebusy.history-days:30}") int historyDays,
+                           @Value("${hrm.freebusy.horizon-days:365}") int horizonDays) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.workingDayCalendar = workingDayCalendar;
+        this.historyDays = historyDays;
+        this.horizonDays = horizonDays;
+    }
+
+    // Nạp lại toàn bộ mỗi đêm: đẩy cửa sổ index về phía trước và bắt các thay đổi từ service khác (hủy đơn...)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hrm.freebusy.rebuild-cron:0 30 0 * * *}")
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime start = today.minusDays(historyDays).atStartOfDay();
+        LocalDateTime end = today.plusDays(horizonDays + 1L).atStartOfDay();
+
+        Map<Long, CalendarEvent> events = new LinkedHashMap<>();
+        calendarEventRepository.findEndingSince(start).forEach(e -> events.put(e.getEventID(), e));
+        calendarEventRepository.findActiveSeriesSince(start).forEach(e -> events.put(e.getEventID(), e));
+
+        Map<Long, Map<String, long[]>> sources = new HashMap<>();
+        for (CalendarEvent event : events.values()) {
+            Long owner = ownerOf(event);
+            if (owner != null) {
+                sources.computeIfAbsent(owner, k -> new HashMap<>()).put(eventKey(event), intervalsOf(event, start, end));
+            }
+        }
+        for (Object[] row : leaveRequestRepository.findApprovedLeaveRanges(start.toLocalDate())) {
+            sources.computeIfAbsent(((Integer) row[1]).longValue(), k -> new HashMap<>())
+                    .put("L" + row[0], leaveInterval(row));
+        }
+
+        Map<Long, Schedule> fresh = new ConcurrentHashMap<>();
+        sources.forEach((owner, bySource) -> fresh.put(owner, Schedule.of(bySource)));
+        indexStart = start;
+        indexEnd = end;
+        schedules = fresh;
+        log.debug("Free/busy index rebuilt for {} users", fresh.size());
+    }
+
+    /**
+     * Đồng bộ nghỉ phép đã duyệt với DB: bỏ đơn không còn Approved (hủy/thu hồi từ service khác),
+     * thêm/sửa đơn thay đổi; chỉ dựng lại Schedule của nhân viên có thay đổi. Giữ lock cả lúc truy vấn
+     * để một lần duyệt đơn áp dụng xen giữa không bị ghi đè bởi dữ liệu đọc trước đó.
+     */
+    @Scheduled(fixedDelayString = "${hrm.freebusy.leave-refresh-ms:300000}",
+               initialDelayString = "${hrm.freebusy.leave-refresh-ms:300000}")
+    public synchronized void refreshLeave() {
+        LocalDateTime start = indexStart;
+        if (start == null) {
+            return;
+        }
+        Map<Long, Map<String, long[]>> approved = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.findApprovedLeaveRanges(start.toLocalDate())) {
+            approved.computeIfAbsent(((Integer) row[1]).longValue(), k -> new HashMap<>())
+                    .put("L" + row[0], leaveInterval(row));
+        }
+        int changedUsers = 0;
+        Set<Long> owners = new LinkedHashSet<>(schedules.keySet());
+        owners.addAll(approved.keySet());
+        for (Long owner : owners) {
+            Schedule current = schedules.getOrDefault(owner, Schedule.EMPTY);
+            Map<String, long[]> wanted = approved.getOrDefault(owner, Map.of());
+            Map<String, long[]> changes = new HashMap<>();
+            current.sources.forEach((key, intervals) -> {
+                if (key.startsWith("L") && !wanted.containsKey(key)) {
+                    changes.put(key, null);
+                }
+            });
+            wanted.forEach((key, intervals) -> {
+                if (!Arrays.equals(current.sources.get(key), intervals)) {
+                    changes.put(key, intervals);
+                }
+            });
+            if (!changes.isEmpty()) {
+                schedules.put(owner, current.with(changes));
+                changedUsers++;
+            }
+        }
+        log.debug("Free/busy leave reconciled, {} users changed", changedUsers);
+    }
+
+    // ---- Cập nhật từng phần ----
+
+    public synchronized void addEvent(CalendarEvent event) {
+        Long owner = ownerOf(event);
+        if (owner != null && indexStart != null) {
+            put(owner, eventKey(event), intervalsOf(event, indexStart, indexEnd));
+        }
+    }
+
+    public synchronized void removeEvent(CalendarEvent event) {
+        Long owner = ownerOf(event);
+        if (owner != null) {
+            put(owner, eventKey(event), null);
+        }
+    }
+
+    /**
+     * Duyệt hàng loạt phát một event cho mỗi đơn: gom ID theo transaction rồi sau commit
+     * nạp tất cả bằng một truy vấn IN và dựng lại Schedule một lần cho mỗi nhân viên.
+     */
+    @EventListener
+    public void onApprovalEvent(ApprovalQueueEvent event) {
+        if (event.getType() != ApprovalQueueEvent.Type.APPROVED || event.getLeaveRequestID() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyApproved(List.of(event.getLeaveRequestID()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Integer> approvedIds = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (approvedIds == null) {
+            Set<Integer> ids = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyApproved(ids);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(FreeBusyService.this);
+                }
+            });
+            approvedIds = ids;
+        }
+        approvedIds.add(event.getLeaveRequestID());
+    }
+
+    private void applyApproved(Collection<Integer> leaveRequestIds) {
+        Map<Long, Map<String, long[]>> byOwner = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.findApprovedLeaveRangesByIds(leaveRequestIds)) {
+            byOwner.computeIfAbsent(((Integer) row[1]).longValue(), k -> new HashMap<>())
+                    .put("L" + row[0], leaveInterval(row));
+        }
+        synchronized (this) {
+            byOwner.forEach(this::putAll);
+        }
+    }
+
+    private void put(Long owner, String key, long[] intervals) {
+        Schedule current = schedules.getOrDefault(owner, Schedule.EMPTY);
+        if (intervals == null && !current.sources.containsKey(key)) {
+            return;
+        }
+        Map<String, long[]> change = new HashMap<>();
+        change.put(key, intervals);
+        schedules.put(owner, current.with(change));
+    }
+
+    private void putAll(Long owner, Map<String, long[]> intervalsByKey) {
+        schedules.put(owner, schedules.getOrDefault(owner, Schedule.EMPTY).with(intervalsByKey));
+    }
+
+    // ---- Truy vấn ----
+
+    /**
+     * Merged busy intervals of each user inside [from, to), clipped to the window.
+     */
+    public Map<Long, List<TimeIntervalDto>> getBusy(Collection<Long> userIds, LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        long start = seconds(from);
+        long end = seconds(to);
+        Map<Long, List<TimeIntervalDto>> result = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            List<TimeIntervalDto> busy = new ArrayList<>();
+            forEachBusy(scheduleGroup(List.of(userId)), start, end, (s, e) -> busy.add(interval(s, e)));
+            result.put(userId, busy);
+        }
+        return result;
+    }
+
+    /**
+     * Users (of {@code userIds}) with anything overlapping [from, to); one binary search per user.
+     */
+    public List<Long> findBusyUsers(Collection<Long> userIds, LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        long start = seconds(from);
+        long end = seconds(to);
+        Schedule shared = schedules.get(SHARED);
+        boolean everyoneBusy = shared != null && shared.overlaps(start, end);
+        List<Long> busy = new ArrayList<>();
+        for (Long userId : userIds) {
+            Schedule schedule = schedules.get(userId);
+            if (everyoneBusy || (schedule != null && schedule.overlaps(start, end))) {
+                busy.add(userId);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Common free slots of at least {@code minDuration} for all {@code userIds} inside [from, to), earliest first.
+     * With {@code workStart}/{@code workEnd} set, slots are cut to those hours on working days only.
+     */
+    public List<TimeIntervalDto> findFreeSlots(Collection<Long> userIds, LocalDateTime from, LocalDateTime to,
+                                               Duration minDuration, LocalTime workStart, LocalTime workEnd, int limit) {
+        checkWindow(from, to);
+        long start = seconds(from);
+        long end = seconds(to);
+        long minSeconds = minDuration.getSeconds();
+        List<TimeIntervalDto> slots = new ArrayList<>();
+        long[] cursor = {start};
+        IntervalSink gapSink = (gapStart, gapEnd) -> addFreeSlots(gapStart, gapEnd, minSeconds, workStart, workEnd, limit, slots);
+        forEachBusy(scheduleGroup(userIds), start, end, (busyStart, busyEnd) -> {
+            boolean more = busyStart <= cursor[0] || gapSink.accept(cursor[0], busyStart);
+            cursor[0] = Math.max(cursor[0], busyEnd);
+            return more;
+        });
+        if (slots.size() < limit && cursor[0] < end) {
+            gapSink.accept(cursor[0], end);
+        }
+        return slots;
+    }
+
+    private boolean addFreeSlots(long gapStart, long gapEnd, long minSeconds, LocalTime workStart, LocalTime workEnd,
+                                 int limit, List<TimeIntervalDto> slots) {
+        if (workStart == null || workEnd == null) {
+            if (gapEnd - gapStart >= minSeconds) {
+                slots.add(interval(gapStart, gapEnd));
+            }
+            return slots.size() < limit;
+        }
+        LocalDate lastDay = LocalDateTime.ofEpochSecond(gapEnd, 0, ZoneOffset.UTC).toLocalDate();
+        for (LocalDate day = LocalDateTime.ofEpochSecond(gapStart, 0, ZoneOffset.UTC).toLocalDate();
+             !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (!workingDayCalendar.isWorkingDay(day)) {
+                continue;
+            }
+            long slotStart = Math.max(gapStart, seconds(day.atTime(workStart)));
+            long slotEnd = Math.min(gapEnd, seconds(day.atTime(workEnd)));
+            if (slotEnd - slotStart >= minSeconds) {
+                slots.add(interval(slotStart, slotEnd));
+                if (slots.size() >= limit) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<Schedule> scheduleGroup(Collection<Long> userIds) {
+        List<Schedule> group = new ArrayList<>(userIds.size() + 1);
+        Schedule shared = schedules.get(SHARED);
+        if (shared != null) {
+            group.add(shared);
+        }
+        for (Long userId : userIds) {
+            Schedule schedule = schedules.get(userId);
+            if (schedule != null) {
+                group.add(schedule);
+            }
+        }
+        return group;
+    }
+
+    private interface IntervalSink {
+        boolean accept(long start, long end);
+    }
+
+    /**
+     * Union of the group's busy intervals inside [from, to), in order: each schedule is entered with one
+     * binary search, then a heap merges the per-user streams.
+     */
+    private static void forEachBusy(List<Schedule> group, long from, long to, IntervalSink sink) {
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Comparator.comparingLong(c -> group.get(c[0]).starts[c[1]]));
+        for (int g = 0; g < group.size(); g++) {
+            Schedule schedule = group.get(g);
+            int k = schedule.firstEndingAfter(from);
+            if (k < schedule.starts.length && schedule.starts[k] < to) {
+                heap.add(new int[]{g, k});
+            }
+        }
+        long openStart = 0;
+        long openEnd = Long.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int[] c = heap.poll();
+            Schedule schedule = group.get(c[0]);
+            long start = schedule.starts[c[1]];
+            long end = schedule.ends[c[1]];
+            if (start <= openEnd) {
+                openEnd = Math.max(openEnd, end);
+            } else {
+                if (openEnd != Long.MIN_VALUE && !sink.accept(Math.max(openStart, from), Math.min(openEnd, to))) {
+                    return;
+                }
+                openStart = start;
+                openEnd = end;
+            }
+            if (++c[1] < schedule.starts.length && schedule.starts[c[1]] < to) {
+                heap.add(c);
+            }
+        }
+        if (openEnd != Long.MIN_VALUE) {
+            sink.accept(Math.max(openStart, from), Math.min(openEnd, to));
+        }
+    }
+
+    private void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (indexStart == null) {
+            throw new IllegalStateException("Free/busy index is not loaded yet");
+        }
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        if (from.isBefore(indexStart) || to.isAfter(indexEnd)) {
+            throw new IllegalArgumentException("Window must be inside the indexed range " + indexStart + " .. " + indexEnd);
+        }
+    }
+
+    // ---- Chuyển đổi ----
+
+    private static Long ownerOf(CalendarEvent event) {
+        if (event.getEventType() == CalendarEvent.EventType.HOLIDAY) {
+            return SHARED;
+        }
+        return event.getUserID() != null ? event.getUserID() : event.getCreatedBy();
+    }
+
+    private static String eventKey(CalendarEvent event) {
+        return "E" + event.getEventID();
+    }
+
+    // [start0, end0, start1, end1, ...]; chuỗi lặp lại được trải ra trong cửa sổ index
+    private static long[] intervalsOf(CalendarEvent event, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (event.getRecurrenceRule() == null) {
+            return new long[]{seconds(event.getStartTime()), seconds(event.getEndTime())};
+        }
+        long duration = Duration.between(event.getStartTime(), event.getEndTime()).getSeconds();
+        List<LocalDateTime> starts = new ArrayList<>();
+        RecurrenceRule.parse(event.getRecurrenceRule()).forEachOccurrence(event.getStartTime(), event.getEndTime(),
+                RecurrenceRule.parseExceptions(event.getRecurrenceExceptions()), windowStart, windowEnd,
+                MAX_OCCURRENCES_PER_SERIES, starts::add);
+        long[] intervals = new long[starts.size() * 2];
+        for (int i = 0; i < starts.size(); i++) {
+            intervals[2 * i] = seconds(starts.get(i));
+            intervals[2 * i + 1] = intervals[2 * i] + duration;
+        }
+        return intervals;
+    }
+
+    // Nghỉ cả ngày: [StartDate 00:00, EndDate + 1 00:00)
+    private static long[] leaveInterval(Object[] row) {
+        LocalDate start = toLocalDate(row[2]);
+        LocalDate end = toLocalDate(row[3]);
+        return new long[]{seconds(start.atStartOfDay()), seconds(end.plusDays(1).atStartOfDay())};
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static TimeIntervalDto interval(long start, long end) {
+        return new TimeIntervalDto(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * One user's intervals by source ("E12" event, "L5" leave), the starts and ends of all of them sorted
+     * independently, and their union as sorted, disjoint arrays.
+     */
+    private static final class Schedule {
+        static final Schedule EMPTY = of(Map.of());
+
+        final Map<String, long[]> sources;
+        final long[] rawStarts;
+        final long[] rawEnds;
+        final long[] starts;
+        final long[] ends;
+
+        private Schedule(Map<String, long[]> sources, long[] rawStarts, long[] rawEnds, long[] starts, long[] ends) {
+            this.sources = sources;
+            this.rawStarts = rawStarts;
+            this.rawEnds = rawEnds;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        static Schedule of(Map<String, long[]> sources) {
+            long[][] bounds = sortedBounds(sources.values());
+            return union(Map.copyOf(sources), bounds[0], bounds[1]);
+        }
+
+        /**
+         * Copy with the given sources replaced ({@code null} value = removed). Only the old and new intervals
+         * of those sources are sorted; they are merged into the existing sorted bounds in one linear pass.
+         */
+        Schedule with(Map<String, long[]> changes) {
+            Map<String, long[]> next = new HashMap<>(sources);
+            List<long[]> removed = new ArrayList<>();
+            List<long[]> added = new ArrayList<>();
+            changes.forEach((key, intervals) -> {
+                long[] previous = intervals == null ? next.remove(key) : next.put(key, intervals);
+                if (previous != null) {
+                    removed.add(previous);
+                }
+                if (intervals != null) {
+                    added.add(intervals);
+                }
+            });
+            long[][] minus = sortedBounds(removed);
+            long[][] plus = sortedBounds(added);
+            return union(Map.copyOf(next), replace(rawStarts, minus[0], plus[0]), replace(rawEnds, minus[1], plus[1]));
+        }
+
+        private static long[][] sortedBounds(Collection<long[]> sources) {
+            int n = 0;
+            for (long[] pairs : sources) {
+                n += pairs.length / 2;
+            }
+            long[] rawStarts = new long[n];
+            long[] rawEnds = new long[n];
+            int m = 0;
+            for (long[] pairs : sources) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    if (pairs[i + 1] > pairs[i]) { // sự kiện có độ dài 0 (mốc deadline) không chiếm thời gian
+                        rawStarts[m] = pairs[i];
+                        rawEnds[m] = pairs[i + 1];
+                        m++;
+                    }
+                }
+            }
+            Arrays.sort(rawStarts, 0, m);
+            Arrays.sort(rawEnds, 0, m);
+            return new long[][]{Arrays.copyOf(rawStarts, m), Arrays.copyOf(rawEnds, m)};
+        }
+
+        // base - removed + added, all sorted; removed is a sub-multiset of base
+        private static long[] replace(long[] base, long[] removed, long[] added) {
+            long[] out = new long[base.length - removed.length + added.length];
+            int i = 0;
+            int r = 0;
+            int a = 0;
+            int o = 0;
+            while (i < base.length) {
+                if (r < removed.length && removed[r] == base[i]) {
+                    r++;
+                    i++;
+                } else if (a < added.length && added[a] < base[i]) {
+                    out[o++] = added[a++];
+                } else {
+                    out[o++] = base[i++];
+                }
+            }
+            while (a < added.length) {
+                out[o++] = added[a++];
+            }
+            return out;
+        }
+
+        // Union via sorted starts and sorted ends swept together (no per-interval objects)
+        private static Schedule union(Map<String, long[]> sources, long[] rawStarts, long[] rawEnds) {
+            int m = rawStarts.length;
+            long[] starts = new long[m];
+            long[] ends = new long[m];
+            int size = 0;
+            int depth = 0;
+            int i = 0;
+            int j = 0;
+            long open = 0;
+            while (j < m) {
+                if (i < m && rawStarts[i] <= rawEnds[j]) {
+                    if (depth++ == 0) {
+                        open = rawStarts[i];
+                    }
+                    i++;
+                } else {
+                    if (--depth == 0) {
+                        starts[size] = open;
+                        ends[size] = rawEnds[j];
+                        size++;
+                    }
+                    j++;
+                }
+            }
+            return new Schedule(sources, rawStarts, rawEnds, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+
+        // Index of the first merged interval ending after t
+        int firstEndingAfter(long t) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= t) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean overlaps(long from, long to) {
+            int k = firstEndingAfter(from);
+            return k < starts.length && starts[k] < to;
+        }
+    }
+}
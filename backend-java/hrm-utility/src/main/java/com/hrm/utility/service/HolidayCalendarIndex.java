@@ -0,0 +1,169 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.repository.HolidayRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory index of the Holidays table so range checks never hit MySQL.
+ * Recurring holidays are keyed by month-day, one-off holidays by date.
+ * The snapshot is immutable and swapped on every write (copy-on-write),
+ * so readers never lock.
+ */
+@Component
+@RequiredArgsConstructor
+class HolidayCalendarIndex {
+
+    private final HolidayRepository holidayRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Bumped on every change of the holiday set; seeded with the start time so ETags differ across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    long version() {
+        current(); // load once so the first stamp handed out is not bumped by the initial build
+        return version.get();
+    }
+
+    List<Holiday> findInRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return Collections.emptyList();
+        }
+        Snapshot current = current();
+        List<Holiday> result = new ArrayList<>();
+
+        // One-off holidays: ordinary sorted range lookup
+        current.oneOff.subMap(startDate, true, endDate, true).values().forEach(result::addAll);
+
+        // Recurring holidays: a window of a full year or more contains every month-day
+        if (!endDate.isBefore(startDate.plusYears(1).minusDays(1))) {
+            current.recurring.values().forEach(result::addAll);
+        } else {
+            MonthDay from = MonthDay.from(startDate);
+            MonthDay to = MonthDay.from(endDate);
+            if (startDate.getYear() == endDate.getYear()) {
+                current.recurring.subMap(from, true, to, true).values().forEach(result::addAll);
+            } else {
+                // Window wraps over New Year: [from .. Dec 31] + [Jan 1 .. to]
+                current.recurring.tailMap(from, true).values().forEach(result::addAll);
+                current.recurring.headMap(to, true).values().forEach(result::addAll);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls {@code consumer} once per holiday occurrence inside [startDate, endDate].
+     * Recurring holidays are expanded year by year, touching only the month-days in the window.
+     */
+    void forEachOccurrence(LocalDate startDate, LocalDate endDate, BiConsumer<Holiday, LocalDate> consumer) {
+        if (endDate.isBefore(startDate)) {
+            return;
+        }
+        Snapshot current = current();
+
+        current.oneOff.subMap(startDate, true, endDate, true)
+                .forEach((date, holidays) -> holidays.forEach(h -> consumer.accept(h, date)));
+
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            MonthDay from = year == startDate.getYear() ? MonthDay.from(startDate) : MonthDay.of(1, 1);
+            MonthDay to = year == endDate.getYear() ? MonthDay.from(endDate) : MonthDay.of(12, 31);
+            for (Map.Entry<MonthDay, List<Holiday>> entry : current.recurring.subMap(from, true, to, true).entrySet()) {
+                if (!entry.getKey().isValidYear(year)) {
+                    continue; // 29/02 outside leap years
+                }
+                LocalDate date = entry.getKey().atYear(year);
+                entry.getValue().forEach(h -> consumer.accept(h, date));
+            }
+        }
+    }
+
+    Collection<Holiday> all() {
+        return current().byId.values();
+    }
+
+    synchronized void put(Holiday holiday) {
+        Map<Long, Holiday> byId = new HashMap<>(current().byId);
+        byId.put(holiday.getHolidayID(), holiday);
+        snapshot = Snapshot.of(byId.values());
+        version.incrementAndGet();
+    }
+
+    synchronized void remove(Long holidayId) {
+        Snapshot current = current();
+        if (!current.byId.containsKey(holidayId)) {
+            return;
+        }
+        Map<Long, Holiday> byId = new HashMap<>(current.byId);
+        byId.remove(holidayId);
+        snapshot = Snapshot.of(byId.values());
+        version.incrementAndGet();
+    }
+
+    synchronized void rebuild() {
+        snapshot = Snapshot.of(holidayRepository.findAll());
+        version.incrementAndGet();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        final Map<Long, Holiday> byId;
+        final NavigableMap<MonthDay, List<Holiday>> recurring;
+        final NavigableMap<LocalDate, List<Holiday>> oneOff;
+
+        private Snapshot(Map<Long, Holiday> byId,
+                         NavigableMap<MonthDay, List<Holiday>> recurring,
+                         NavigableMap<LocalDate, List<Holiday>> oneOff) {
+            this.byId = byId;
+            this.recurring = recurring;
+            this.oneOff = oneOff;
+        }
+
+        static Snapshot of(Collection<Holiday> holidays) {
+            Map<Long, Holiday> byId = new HashMap<>();
+            NavigableMap<MonthDay, List<Holiday>> recurring = new TreeMap<>();
+            NavigableMap<LocalDate, List<Holiday>> oneOff = new TreeMap<>();
+            for (Holiday h : holidays) {
+                if (h.getHolidayDate() == null) {
+                    continue;
+                }
+                byId.put(h.getHolidayID(), h);
+                if (h.isRecurring()) {
+                    recurring.computeIfAbsent(MonthDay.from(h.getHolidayDate()), k -> new ArrayList<>()).add(h);
+                } else {
+                    oneOff.computeIfAbsent(h.getHolidayDate(), k -> new ArrayList<>()).add(h);
+                }
+            }
+            return new Snapshot(Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableNavigableMap(recurring),
+                    Collections.unmodifiableNavigableMap(oneOff));
+        }
+    }
+}
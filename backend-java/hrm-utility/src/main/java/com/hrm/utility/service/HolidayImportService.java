@@ -0,0 +1,385 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.Holiday;
+import com.hrm.utility.entity.HolidayImportResultDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Bulk holiday import from CSV ({@code name,date[,recurring][,description]}) or iCalendar uploads.
+ * The file is parsed line by line and rows go straight into JDBC batches of {@value #BATCH_SIZE},
+ * all in one transaction: Holiday uses IDENTITY keys, so Hibernate would insert them one statement at a time.
+ * Rows already in the table (same name and date, or same month-day for recurring ones) are skipped;
+ * a fixed-date row is also skipped when a recurring holiday of the same name falls on that month-day.
+ * The existing rows are read with {@code FOR UPDATE}, which on InnoDB locks the whole (small) table until
+ * commit: concurrent imports run one after the other and each one sees the rows the previous one inserted.
+ * The holiday caches are refreshed once after commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class HolidayImportService {
+
+    public enum Format {
+        CSV, ICS
+    }
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ROWS = 10_000;
+    private static final int MAX_ERRORS_REPORTED = 20;
+    private static final int MAX_NAME_LENGTH = 255;        // Holidays.Name VARCHAR(255)
+    private static final int MAX_DESCRIPTION_LENGTH = 255; // Holidays.Description VARCHAR(255)
+    private static final int MAX_EVENT_DAYS = 31; // sự kiện ICS nhiều ngày (vd. Tết) được tách thành từng ngày
+
+    private static final String LOCK_EXISTING_SQL = "SELECT `Name`, `HolidayDate`, `IsRecurring` FROM `Holidays` FOR UPDATE";
+    private static final String INSERT_SQL = "INSERT INTO `Holidays` (`Name`, `HolidayDate`, `IsRecurring`, `Description`, `CreatedAt`) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * @throws IllegalArgumentException if the file holds more than {@value #MAX_ROWS} holidays (nothing is written)
+     */
+    @Transactional
+    public HolidayImportResultDto importHolidays(InputStream in, Format format) throws IOException {
+        // Không dùng findAll (query cache): cần đọc có khóa từ DB để lần import đồng thời phải chờ commit
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(LOCK_EXISTING_SQL, rs -> {
+            existing.add(key(rs.getString(1), rs.getDate(2).toLocalDate(), rs.getBoolean(3)));
+        });
+
+        Importer importer = new Importer(existing);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (format == Format.CSV) {
+                parseCsv(reader, importer);
+            } else {
+                parseIcs(reader, importer);
+            }
+        }
+        importer.flush();
+
+        if (importer.inserted > 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // INSERT qua JDBC không đi qua Hibernate: xóa L2/query cache của Holiday rồi dựng lại index một lần
+                    entityManagerFactory.getCache().evict(Holiday.class);
+                    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+                    holidayCalendarIndex.rebuild();
+                }
+            });
+        }
+        return new HolidayImportResultDto(format.name(), importer.rows, importer.inserted, importer.duplicates,
+                importer.invalid, importer.errors);
+    }
+
+    // Recurring holidays are compared by month-day, so "New Year 2020-01-01" and "New Year 2027-01-01" are the same
+    private static String key(String name, LocalDate date, boolean recurring) {
+        String day = recurring ? "R|" + MonthDay.from(date) : "D|" + date;
+        return day + "|" + name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Importer {
+        final Set<String> seen;
+        final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        final List<String> errors = new ArrayList<>();
+        final Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        int rows;
+        int inserted;
+        int duplicates;
+        int invalid;
+
+        Importer(Set<String> seen) {
+            this.seen = seen;
+        }
+
+        /**
+         * Queues one holiday for insert. Values that would not fit the Holidays columns are rejected
+         * here (one error for the source line) instead of failing the whole batch with a 500.
+         *
+         * @return false if the row was rejected as invalid
+         */
+        boolean accept(int line, String name, LocalDate date, boolean recurring, String description) {
+            if (++rows > MAX_ROWS) {
+                throw new IllegalArgumentException("At most " + MAX_ROWS + " holidays per import");
+            }
+            if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+                reject(line, "name must be 1-" + MAX_NAME_LENGTH + " characters");
+                return false;
+            }
+            if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+                reject(line, "description must be at most " + MAX_DESCRIPTION_LENGTH + " characters");
+                return false;
+            }
+            // "New Year,2027-01-01" trùng với ngày lễ lặp lại "New Year" 01-01 đã có
+            if ((!recurring && seen.contains(key(name, date, true))) || !seen.add(key(name, date, recurring))) {
+                duplicates++;
+                return true;
+            }
+            batch.add(new Object[]{name, Date.valueOf(date), recurring, description, createdAt});
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+            return true;
+        }
+
+        void reject(int line, String message) {
+            invalid++;
+            if (errors.size() < MAX_ERRORS_REPORTED) {
+                errors.add("line " + line + ": " + message);
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            inserted += batch.size();
+            batch.clear();
+        }
+    }
+
+    // ---- CSV: name,date[,recurring][,description]; header dòng đầu (bắt đầu bằng "name") là tùy chọn ----
+
+    private static void parseCsv(BufferedReader reader, Importer importer) throws IOException {
+        String line;
+        int lineNo = 0;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1); // BOM của file CSV xuất từ Excel
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            if (first) {
+                first = false;
+                if ("name".equalsIgnoreCase(fields.get(0).trim())) {
+                    continue;
+                }
+            }
+            if (fields.size() < 2) {
+                importer.reject(lineNo, "expected name,date[,recurring][,description]");
+                continue;
+            }
+
+            String name = fields.get(0).trim();
+            LocalDate date;
+            try {
+                date = LocalDate.parse(fields.get(1).trim());
+            } catch (DateTimeParseException e) {
+                importer.reject(lineNo, "invalid date '" + fields.get(1).trim() + "', expected yyyy-MM-dd");
+                continue;
+            }
+            // Không có cột recurring: coi là ngày cố định của năm đó (lịch nghỉ lễ theo năm)
+            Boolean recurring = fields.size() > 2 ? parseBoolean(fields.get(2)) : Boolean.FALSE;
+            if (recurring == null) {
+                importer.reject(lineNo, "invalid recurring value '" + fields.get(2).trim() + "'");
+                continue;
+            }
+            String description = fields.size() > 3 && !fields.get(3).isBlank() ? fields.get(3).trim() : null;
+            importer.accept(lineNo, name, date, recurring, description);
+        }
+    }
+
+    // RFC 4180 quoting on a single line: "a, b" and "say ""hi""" are one field each
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y", "x":
+                return Boolean.TRUE;
+            case "false", "0", "no", "n", "":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    // ---- ICS: mỗi VEVENT là một ngày lễ (hoặc nhiều ngày), RRULE:FREQ=YEARLY = lặp lại hàng năm ----
+
+    private static void parseIcs(BufferedReader reader, Importer importer) throws IOException {
+        IcsEvent event = null;
+        String pending = null;
+        int pendingLineNo = 0;
+        int lineNo = 0;
+        String line;
+        while (true) {
+            line = reader.readLine();
+            lineNo++;
+            // Dòng tiếp nối (folding, RFC 5545 §3.1) bắt đầu bằng space/tab
+            if (line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t') && pending != null) {
+                pending += line.substring(1);
+                continue;
+            }
+            if (pending != null) {
+                event = onIcsLine(pending, pendingLineNo, event, importer);
+            }
+            if (line == null) {
+                return;
+            }
+            pending = line;
+            pendingLineNo = lineNo;
+        }
+    }
+
+    private static IcsEvent onIcsLine(String line, int lineNo, IcsEvent event, Importer importer) {
+        if (line.equals("BEGIN:VEVENT")) {
+            return new IcsEvent(lineNo);
+        }
+        if (event == null) {
+            return null; // VCALENDAR header, VTIMEZONE...
+        }
+        if (line.equals("END:VEVENT")) {
+            event.emit(importer);
+            return null;
+        }
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            return event;
+        }
+        String property = line.substring(0, colon);
+        int semicolon = property.indexOf(';');
+        String name = (semicolon < 0 ? property : property.substring(0, semicolon)).toUpperCase(Locale.ROOT);
+        String value = line.substring(colon + 1);
+        switch (name) {
+            case "SUMMARY" -> event.summary = unescape(value).trim();
+            case "DESCRIPTION" -> event.description = unescape(value).trim();
+            case "DTSTART" -> {
+                event.start = value;
+                event.allDay = property.toUpperCase(Locale.ROOT).contains("VALUE=DATE") && !value.contains("T");
+            }
+            case "DTEND" -> event.end = value;
+            case "RRULE" -> event.rrule = value.toUpperCase(Locale.ROOT);
+            default -> {
+            }
+        }
+        return event;
+    }
+
+    private static String unescape(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static final class IcsEvent {
+        final int lineNo;
+        String summary;
+        String description;
+        String start;
+        String end;
+        String rrule;
+        boolean allDay;
+
+        IcsEvent(int lineNo) {
+            this.lineNo = lineNo;
+        }
+
+        void emit(Importer importer) {
+            if (summary == null) {
+                importer.reject(lineNo, "missing SUMMARY");
+                return;
+            }
+            LocalDate startDate = parseIcsDate(start);
+            if (startDate == null) {
+                importer.reject(lineNo, "missing or invalid DTSTART");
+                return;
+            }
+            boolean recurring = false;
+            if (rrule != null) {
+                if (!rrule.contains("FREQ=YEARLY")) {
+                    importer.reject(lineNo, "only yearly recurrence is supported (" + rrule + ")");
+                    return;
+                }
+                recurring = true;
+            }
+            // DTEND của sự kiện cả ngày là ngày kế tiếp (exclusive)
+            int days = 1;
+            LocalDate endDate = parseIcsDate(end);
+            if (allDay && endDate != null && endDate.isAfter(startDate)) {
+                days = (int) Math.min(ChronoUnit.DAYS.between(startDate, endDate), MAX_EVENT_DAYS);
+            }
+            for (int i = 0; i < days; i++) {
+                if (!importer.accept(lineNo, summary, startDate.plusDays(i), recurring, description)) {
+                    return;
+                }
+            }
+        }
+
+        // "20260217" hoặc "20260217T090000Z": chỉ lấy phần ngày
+        private static LocalDate parseIcsDate(String value) {
+            if (value == null || value.length() < 8) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(value.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
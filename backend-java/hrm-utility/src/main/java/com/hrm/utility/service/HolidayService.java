@@ -7,13 +7,17 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public interface HolidayService {
     List<Holiday> getAllHolidays();
     Holiday createHoliday(Holiday holiday);
     List<Holiday> getHolidaysInRange(LocalDate startDate, LocalDate endDate);
     void deleteHoliday(Long id);
+
+    /**
+     * Version stamp of the holiday set, changes whenever a holiday is created or deleted (used for ETags).
+     */
+    long getVersion();
 }
 
 @Service
@@ -21,6 +25,7 @@ public interface HolidayService {
 class HolidayServiceImpl implements HolidayService {
 
     private final HolidayRepository holidayRepository;
+    private final HolidayCalendarIndex holidayCalendarIndex;
 
     @Override
     public List<Holiday> getAllHolidays() {
@@ -29,33 +34,25 @@ class HolidayServiceImpl implements HolidayService {
 
     @Override
     public Holiday createHoliday(Holiday holiday) {
-        return holidayRepository.save(holiday);
+        Holiday saved = holidayRepository.save(holiday);
+        holidayCalendarIndex.put(saved);
+        return saved;
     }
 
     @Override
     public List<Holiday> getHolidaysInRange(LocalDate startDate, LocalDate endDate) {
-        // More robust logic for recurring holidays
-        List<Holiday> allHolidays = holidayRepository.findAll();
-        
-        return allHolidays.stream()
-            .filter(h -> {
-                if (!h.isRecurring()) {
-                    return !h.getHolidayDate().isBefore(startDate) && !h.getHolidayDate().isAfter(endDate);
-                } else {
-                    // For recurring, we check month/day
-                    // This is a simplified check for ranges within the same year or spanning two years
-                    LocalDate currentYearDate = h.getHolidayDate().withYear(startDate.getYear());
-                    LocalDate nextYearDate = h.getHolidayDate().withYear(startDate.getYear() + 1);
-                    
-                    return (!currentYearDate.isBefore(startDate) && !currentYearDate.isAfter(endDate)) ||
-                           (!nextYearDate.isBefore(startDate) && !nextYearDate.isAfter(endDate));
-                }
-            })
-            .collect(Collectors.toList());
+        // Served from the in-memory index, handles ranges spanning several years
+        return holidayCalendarIndex.findInRange(startDate, endDate);
     }
 
     @Override
     public void deleteHoliday(Long id) {
         holidayRepository.deleteById(id);
+        holidayCalendarIndex.remove(id);
+    }
+
+    @Override
+    public long getVersion() {
+        return holidayCalendarIndex.version();
     }
 }
@@ -0,0 +1,109 @@
+package com.hrm.utility.service;
+
+import com.hrm.utility.entity.LeaveFormDataDto;
+import com.hrm.utility.repository.LeaveRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk export of leave forms as a ZIP archive. PDFs are rendered on a bounded worker pool
+ * and written to the archive as each one finishes, with at most a few forms in flight per
+ * export, so neither the archive nor the full set of PDFs is held in memory.
+ */
+@Service
+public class LeaveFormExportService {
+
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final DocumentService documentService;
+    private final ExecutorService renderPool;
+    private final int maxInFlight;
+
+    public LeaveFormExportService(LeaveRequestRepository leaveRequestRepository,
+                                  DocumentService documentService,
+                                  @Value("${hrm.documents.export.threads:4}") int threads) {
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.documentService = documentService;
+        AtomicInteger counter = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "pdf-export-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.maxInFlight = threads * 2;
+    }
+
+    public List<LeaveFormDataDto> findForms(Integer managerId, String status, LocalDate from, LocalDate to) {
+        return leaveRequestRepository.findLeaveForms(managerId, status, from, to);
+    }
+
+    public void writeZip(List<LeaveFormDataDto> forms, OutputStream out) throws IOException {
+        CompletionService<RenderedForm> completion = new ExecutorCompletionService<>(renderPool);
+        List<Future<RenderedForm>> futures = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+
+        int submitted = 0;
+        int completed = 0;
+        try {
+            while (completed < forms.size()) {
+                // Giới hạn số PDF đang render/chờ ghi cho mỗi lần export
+                while (submitted < forms.size() && submitted - completed < maxInFlight) {
+                    LeaveFormDataDto form = forms.get(submitted++);
+                    futures.add(completion.submit(() ->
+                            new RenderedForm(entryName(form), documentService.generateLeavePdf(form.toTemplateData()))));
+                }
+
+                RenderedForm rendered = completion.take().get();
+                completed++;
+                zip.putNextEntry(new ZipEntry(rendered.name));
+                zip.write(rendered.content);
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Leave form export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render leave form", e.getCause());
+        } finally {
+            // Client ngắt kết nối / lỗi: huỷ các PDF chưa render
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private static String entryName(LeaveFormDataDto form) {
+        String employee = form.getEmployeeName() != null ? form.getEmployeeName() : "Employee";
+        return form.getLeaveRequestID() + "_" + employee.replaceAll("[^\\p{L}\\p{N}]+", "_") + "_Leave_Application.pdf";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private static final class RenderedForm {
+        final String name;
+        final byte[] content;
+
+        RenderedForm(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package com.hrm.utility.service;
 
+import com.hrm.utility.entity.BatchDecisionResultDto;
+import com.hrm.utility.entity.LeaveCoverageDayDto;
+import com.hrm.utility.entity.LeaveDecisionAudit;
+import com.hrm.utility.entity.LeaveRequestPageDto;
 import com.hrm.utility.entity.LeaveRequestResponseDto;
-import com.hrm.utility.entity.LeaveRequest;
 import com.hrm.utility.repository.LeaveRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class LeaveService {
@@ -18,77 +38,298 @@ public class LeaveService {
     @Autowired
     private LeaveRequestRepository leaveRequestRepository;
 
-    public List<LeaveRequestResponseDto> getPendingApprovals(Integer managerId,Integer leaveTypeId) {
-        // 1. Lấy tất cả đơn có ManagerID trùng khớp và Status là 'Pending'
-        List<LeaveRequest> requests;
-        // Logic: Nếu có chọn loại nghỉ thì gọi hàm lọc, ngược lại gọi hàm thường
-        if (leaveTypeId != null && leaveTypeId > 0) {
-            requests = leaveRequestRepository.findByManagerIDAndStatusAndLeaveType(managerId, "Pending", leaveTypeId);
-        } else {
-            requests = leaveRequestRepository.findByManagerIDAndStatus(managerId, "Pending");
-        } 
+    @Autowired
+    private ApprovalCounterService approvalCounterService;
+
+    @Autowired
+    private ApprovalAuditService approvalAuditService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        // 2. Convert Entity sang DTO
-        return requests.stream().map(this::mapToDto).collect(Collectors.toList());
+    public List<LeaveRequestResponseDto> getPendingApprovals(Integer managerId,Integer leaveTypeId) {
+        // 1. Lấy tất cả đơn có ManagerID trùng khớp và Status là 'Pending' (projection, không load entity)
+        return findPendingRows(managerId, leaveTypeId, null, null, Pageable.unpaged());
     }
 
     public List<LeaveRequestResponseDto> getAllApprovals(Integer managerId,Integer leaveTypeId) {
-        List<LeaveRequest> requests;
+        return findAllRows(managerId, leaveTypeId, null, null, Pageable.unpaged());
+    }
+
+    public LeaveRequestPageDto getPendingApprovalsPage(Integer managerId, Integer leaveTypeId, String cursor, int limit) {
+        Cursor c = Cursor.decode(cursor);
+        List<LeaveRequestResponseDto> rows = findPendingRows(managerId, leaveTypeId, c.requestedDate, c.leaveRequestID,
+                PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
+    public LeaveRequestPageDto getAllApprovalsPage(Integer managerId, Integer leaveTypeId, String cursor, int limit) {
+        Cursor c = Cursor.decode(cursor);
+        List<LeaveRequestResponseDto> rows = findAllRows(managerId, leaveTypeId, c.requestedDate, c.leaveRequestID,
+                PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
+    private List<LeaveRequestResponseDto> findPendingRows(Integer managerId, Integer leaveTypeId,
+                                                          LocalDateTime cursorDate, Integer cursorId, Pageable pageable) {
         // Logic: Nếu có chọn loại nghỉ thì gọi hàm lọc, ngược lại gọi hàm thường
         if (leaveTypeId != null && leaveTypeId > 0) {
-            requests = leaveRequestRepository.findByManagerIDAndLeaveType(managerId, leaveTypeId);
-        } else {
-            requests = leaveRequestRepository.findByManagerID(managerId);
+            return leaveRequestRepository.findApprovalRowsByManagerAndStatusAndLeaveType(
+                    managerId, "Pending", leaveTypeId, cursorDate, cursorId, pageable);
         }
+        return leaveRequestRepository.findApprovalRowsByManagerAndStatus(managerId, "Pending", cursorDate, cursorId, pageable);
+    }
 
-        return requests.stream().map(this::mapToDto).collect(Collectors.toList());
+    private List<LeaveRequestResponseDto> findAllRows(Integer managerId, Integer leaveTypeId,
+                                                      LocalDateTime cursorDate, Integer cursorId, Pageable pageable) {
+        if (leaveTypeId != null && leaveTypeId > 0) {
+            return leaveRequestRepository.findApprovalRowsByManagerAndLeaveType(managerId, leaveTypeId, cursorDate, cursorId, pageable);
+        }
+        return leaveRequestRepository.findApprovalRowsByManager(managerId, cursorDate, cursorId, pageable);
+    }
+
+    // Lấy thừa 1 dòng để biết còn trang sau hay không
+    private LeaveRequestPageDto toPage(List<LeaveRequestResponseDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new LeaveRequestPageDto(rows, null);
+        }
+        List<LeaveRequestResponseDto> items = rows.subList(0, limit);
+        LeaveRequestResponseDto last = items.get(limit - 1);
+        return new LeaveRequestPageDto(items, Cursor.encode(last));
     }
 
-    private LeaveRequestResponseDto mapToDto(LeaveRequest entity) {
-        LeaveRequestResponseDto dto = new LeaveRequestResponseDto();
-        dto.setLeaveRequestID(entity.getLeaveRequestID());
-        dto.setStartDate(entity.getStartDate());
-        dto.setEndDate(entity.getEndDate());
-        dto.setTotalDays(entity.getTotalDays());
-        dto.setStatus(entity.getStatus());
-        dto.setRequestedDate(entity.getRequestedDate().toString());
+    /**
+     * Opaque keyset cursor: base64url("requestedDate|leaveRequestID") of the last row returned.
+     */
+    private static final class Cursor {
+        private static final Cursor FIRST_PAGE = new Cursor(null, null);
 
-        // Lấy thông tin từ bảng Employee (đã Join)
-        if (entity.getEmployee() != null) {
-            dto.setEmployeeName(entity.getEmployee().getFirstName() + " " + entity.getEmployee().getLastName());
-            dto.setAvatarUrl(entity.getEmployee().getAvatarUrl());
+        final LocalDateTime requestedDate;
+        final Integer leaveRequestID;
+
+        private Cursor(LocalDateTime requestedDate, Integer leaveRequestID) {
+            this.requestedDate = requestedDate;
+            this.leaveRequestID = leaveRequestID;
         }
 
-        // Lấy thông tin từ bảng LeaveType (đã Join)
-        if (entity.getLeaveType() != null) {
-            dto.setLeaveTypeName(entity.getLeaveType().getName());
-            dto.setLeaveTypeId(entity.getLeaveType().getLeaveTypeID());
+        static String encode(LeaveRequestResponseDto last) {
+            String raw = last.getRequestedDate() + "|" + last.getLeaveRequestID();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
-        return dto;
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return FIRST_PAGE;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Integer.valueOf(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
     }
 
-    public void approveRequest(Integer leaveRequestID, String note) {
-        LeaveRequest request = leaveRequestRepository.findById(leaveRequestID)
-                .orElseThrow(() -> new RuntimeException("Leave request not found"));
+    /**
+     * Per-day number of team members of the manager who are out (approved leave) or only have pending
+     * leave, over [from, to]. Each employee's requests are merged first, so overlapping or split requests
+     * count that person once, and a day already covered by approved leave is not counted as pending.
+     * Each merged range adds +1 at its first day and -1 after its last day (clipped to the window) of a
+     * difference array; one prefix-sum pass then gives every day's count.
+     */
+    public List<LeaveCoverageDayDto> getTeamCoverage(Integer managerId, LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        Map<Integer, List<int[]>> approvedByEmployee = new HashMap<>();
+        Map<Integer, List<int[]>> pendingByEmployee = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.findCoverageRanges(managerId, from, to)) {
+            long start = Math.max(toLocalDate(row[1]).toEpochDay(), from.toEpochDay());
+            long end = Math.min(toLocalDate(row[2]).toEpochDay(), to.toEpochDay());
+            if (end < start) {
+                continue;
+            }
+            Map<Integer, List<int[]>> byEmployee = "Approved".equals(row[3]) ? approvedByEmployee : pendingByEmployee;
+            byEmployee.computeIfAbsent((Integer) row[0], k -> new ArrayList<>())
+                    .add(new int[]{(int) (start - from.toEpochDay()), (int) (end - from.toEpochDay())});
+        }
 
-        request.setStatus("Approved");
-        request.setApprovalNote(note);
-        // Use Vietnam timezone (GMT+7)
-        request.setApprovedDate(ZonedDateTime.now(ZoneId.of("Asia/Ho_Chi_Minh")).toLocalDateTime());
+        int[] approvedDiff = new int[days + 1];
+        int[] pendingDiff = new int[days + 1];
+        for (Map.Entry<Integer, List<int[]>> entry : approvedByEmployee.entrySet()) {
+            addRanges(approvedDiff, mergeRanges(entry.getValue()));
+        }
+        for (Map.Entry<Integer, List<int[]>> entry : pendingByEmployee.entrySet()) {
+            List<int[]> approved = mergeRanges(approvedByEmployee.getOrDefault(entry.getKey(), List.of()));
+            addRanges(pendingDiff, subtractRanges(mergeRanges(entry.getValue()), approved));
+        }
 
-        leaveRequestRepository.save(request);
+        List<LeaveCoverageDayDto> result = new ArrayList<>(days);
+        int approved = 0;
+        int pending = 0;
+        for (int i = 0; i < days; i++) {
+            approved += approvedDiff[i];
+            pending += pendingDiff[i];
+            result.add(new LeaveCoverageDayDto(from.plusDays(i), approved, pending));
+        }
+        return result;
+    }
+
+    // Khoảng ngày [start, end] (bao gồm hai đầu): sắp xếp rồi gộp các khoảng chồng lên hoặc liền kề
+    private static List<int[]> mergeRanges(List<int[]> ranges) {
+        List<int[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(r -> r[0]));
+        List<int[]> merged = new ArrayList<>(sorted.size());
+        for (int[] range : sorted) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new int[]{range[0], range[1]});
+            }
+        }
+        return merged;
+    }
+
+    // Phần của {@code ranges} không nằm trong {@code removed}; cả hai đã được gộp và sắp xếp
+    private static List<int[]> subtractRanges(List<int[]> ranges, List<int[]> removed) {
+        List<int[]> result = new ArrayList<>();
+        int j = 0;
+        for (int[] range : ranges) {
+            int start = range[0];
+            while (j < removed.size() && removed.get(j)[1] < start) {
+                j++;
+            }
+            for (int k = j; k < removed.size() && removed.get(k)[0] <= range[1]; k++) {
+                if (removed.get(k)[0] > start) {
+                    result.add(new int[]{start, removed.get(k)[0] - 1});
+                }
+                start = Math.max(start, removed.get(k)[1] + 1);
+            }
+            if (start <= range[1]) {
+                result.add(new int[]{start, range[1]});
+            }
+        }
+        return result;
     }
 
-    public void rejectRequest(Integer leaveRequestID, String note) {
-        LeaveRequest request = leaveRequestRepository.findById(leaveRequestID)
-                .orElseThrow(() -> new RuntimeException("Leave request not found"));
+    private static void addRanges(int[] diff, List<int[]> ranges) {
+        for (int[] range : ranges) {
+            diff[range[0]]++;
+            diff[range[1] + 1]--;
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
 
-        request.setStatus("Rejected");
-        request.setApprovalNote(note);
+    @Transactional
+    public BatchDecisionResultDto approveRequest(Integer leaveRequestID, String note, String requestKey) {
+        return decide(List.of(leaveRequestID), "Approved", note, requestKey).get(0);
+    }
+
+    @Transactional
+    public BatchDecisionResultDto rejectRequest(Integer leaveRequestID, String note, String requestKey) {
+        return decide(List.of(leaveRequestID), "Rejected", note, requestKey).get(0);
+    }
+
+    /**
+     * Approves or rejects many requests in one transaction with one set-based UPDATE.
+     */
+    @Transactional
+    public List<BatchDecisionResultDto> decideBatch(List<Integer> ids, String newStatus, String note, String requestKey) {
+        return decide(ids, newStatus, note, requestKey);
+    }
+
+    /**
+     * Pending -> {@code newStatus} as a compare-and-set UPDATE (status guard + version bump), without row
+     * locks, so two approvers acting at once never both win: the loser sees NOT_PENDING.
+     * The winning UPDATE stores {@code requestKey}; a retry with the same key finds it and reports the
+     * same outcome again instead of a conflict. Which rows this call moved is read back by that key (no
+     * lock needed: a transaction always sees its own writes); a row still 'Pending' in the pre-read but not
+     * moved was decided by a concurrent approver and is reported NOT_PENDING without a current status.
+     */
+    private List<BatchDecisionResultDto> decide(Collection<Integer> ids, String newStatus, String note, String requestKey) {
+        Set<Integer> uniqueIds = new LinkedHashSet<>(ids);
+        String decisionKey = requestKey != null ? requestKey : UUID.randomUUID().toString();
+
+        Map<Integer, Object[]> before = statesById(uniqueIds);
+        List<Integer> pendingIds = new ArrayList<>();
+        for (Object[] row : before.values()) {
+            if ("Pending".equals(row[1])) {
+                pendingIds.add((Integer) row[0]);
+            }
+        }
+
+        Map<Integer, Object[]> moved = new HashMap<>();
         // Use Vietnam timezone (GMT+7)
-        request.setApprovedDate(ZonedDateTime.now(ZoneId.of("Asia/Ho_Chi_Minh")).toLocalDateTime());
+        LocalDateTime decidedAt = ZonedDateTime.now(ZoneId.of("Asia/Ho_Chi_Minh")).toLocalDateTime();
+        if (!pendingIds.isEmpty()
+                && leaveRequestRepository.decidePending(pendingIds, newStatus, note, decidedAt, decisionKey) > 0) {
+            for (Object[] row : leaveRequestRepository.findDecidedByKey(pendingIds, decisionKey)) {
+                moved.put((Integer) row[0], row);
+            }
+        }
 
-        leaveRequestRepository.save(request);
+        List<BatchDecisionResultDto> results = new ArrayList<>(uniqueIds.size());
+        List<Object[]> movedRows = new ArrayList<>(moved.size());
+        for (Integer id : uniqueIds) {
+            Object[] row = before.get(id);
+            if (row == null) {
+                results.add(new BatchDecisionResultDto(id, "NOT_FOUND", null));
+            } else if (moved.containsKey(id)) {
+                results.add(new BatchDecisionResultDto(id, newStatus, newStatus));
+                movedRows.add(moved.get(id));
+            } else if (newStatus.equals(row[1]) && decisionKey.equals(row[4])) {
+                // Retry với cùng key: lần gọi trước đã chuyển trạng thái
+                results.add(new BatchDecisionResultDto(id, newStatus, newStatus));
+            } else if ("Pending".equals(row[1])) {
+                // Thua cuộc đua: approver khác vừa duyệt, snapshot chưa thấy trạng thái mới
+                results.add(new BatchDecisionResultDto(id, "NOT_PENDING", null));
+            } else {
+                results.add(new BatchDecisionResultDto(id, "NOT_PENDING", (String) row[1]));
+            }
+        }
+
+        if (!movedRows.isEmpty()) {
+            // Cập nhật bộ đếm khi transaction đã commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (Object[] row : movedRows) {
+                        approvalCounterService.move((Integer) row[2], (Integer) row[3], "Pending", newStatus);
+                    }
+                    // Nhật ký kiểm toán: ghi nền theo lô, không nằm trên đường duyệt đơn
+                    List<LeaveDecisionAudit> audit = new ArrayList<>(movedRows.size());
+                    for (Object[] row : movedRows) {
+                        audit.add(LeaveDecisionAudit.builder()
+                                .leaveRequestID((Integer) row[0])
+                                .previousStatus("Pending")
+                                .newStatus(newStatus)
+                                .decidedBy((Integer) row[2])
+                                .note(note)
+                                .decisionKey(decisionKey)
+                                .decidedAt(decidedAt)
+                                .build());
+                    }
+                    approvalAuditService.record(audit);
+                }
+            });
+            // Giao cho SSE subscribers sau khi commit
+            ApprovalQueueEvent.Type type = "Approved".equals(newStatus)
+                    ? ApprovalQueueEvent.Type.APPROVED : ApprovalQueueEvent.Type.REJECTED;
+            for (Object[] row : movedRows) {
+                eventPublisher.publishEvent(new ApprovalQueueEvent(type, (Integer) row[2], (Integer) row[0], (Integer) row[3]));
+            }
+        }
+        return results;
+    }
+
+    private Map<Integer, Object[]> statesById(Collection<Integer> ids) {
+        Map<Integer, Object[]> states = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.findDecisionStates(ids)) {
+            states.put((Integer) row[0], row);
+        }
+        return states;
     }
-}
\ No newline at end of file
+}
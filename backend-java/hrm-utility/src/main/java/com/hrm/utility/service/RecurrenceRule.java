@@ -0,0 +1,381 @@
+package com.hrm.utility.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Parsed RFC 5545 RRULE subset stored on a {@code CalendarEvent} series:
+ * FREQ=DAILY|WEEKLY|MONTHLY|YEARLY, INTERVAL, COUNT or UNTIL, and BYDAY (weekday list, WEEKLY only).
+ * <p>
+ * Expansion walks epoch-day numbers and jumps straight to the first period that can reach the window,
+ * so reading one month of a ten-year daily series touches about 30 candidates and only the returned
+ * occurrences are allocated. Monthly/yearly dates that do not exist (31st, 29 Feb) are skipped, as in RFC 5545.
+ */
+final class RecurrenceRule {
+
+    enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final int MAX_COUNT = 10_000;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    final Frequency frequency;
+    final int interval;
+    final int count;            // 0 = không giới hạn số lần
+    final LocalDateTime until;  // null = không có UNTIL
+    final int byDayMask;        // bit 0 = Thứ Hai ... bit 6 = Chủ Nhật, 0 = theo ngày bắt đầu
+
+    private RecurrenceRule(Frequency frequency, int interval, int count, LocalDateTime until, int byDayMask) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDayMask = byDayMask;
+    }
+
+    /**
+     * @throws IllegalArgumentException for anything outside the supported subset, so a rule is never half-understood
+     */
+    static RecurrenceRule parse(String text) {
+        String rule = text.trim().toUpperCase(Locale.ROOT);
+        if (rule.startsWith("RRULE:")) {
+            rule = rule.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDateTime until = null;
+        int byDayMask = 0;
+        for (String part : rule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Invalid recurrence rule part '" + part + "'");
+            }
+            String key = part.substring(0, eq);
+            String value = part.substring(eq + 1);
+            switch (key) {
+                case "FREQ" -> {
+                    try {
+                        frequency = Frequency.valueOf(value);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("FREQ must be DAILY, WEEKLY, MONTHLY or YEARLY");
+                    }
+                }
+                case "INTERVAL" -> interval = parsePositive(key, value, 1000);
+                case "COUNT" -> count = parsePositive(key, value, MAX_COUNT);
+                case "UNTIL" -> until = parseUntil(value);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        int index = Arrays.asList(WEEKDAYS).indexOf(day);
+                        if (index < 0) {
+                            throw new IllegalArgumentException("BYDAY supports plain weekdays (MO..SU), got '" + day + "'");
+                        }
+                        byDayMask |= 1 << index;
+                    }
+                }
+                case "WKST" -> {
+                    if (!"MO".equals(value)) {
+                        throw new IllegalArgumentException("Only WKST=MO is supported");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported recurrence rule part " + key);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ is required");
+        }
+        if (count > 0 && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot be combined");
+        }
+        if (byDayMask != 0 && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        return new RecurrenceRule(frequency, interval, count, until, byDayMask);
+    }
+
+    private static int parsePositive(String key, String value, int max) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n >= 1 && n <= max) {
+                return n;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through
+        }
+        throw new IllegalArgumentException(key + " must be between 1 and " + max);
+    }
+
+    // "20261231" (cả ngày) hoặc "20261231T170000[Z]"; giờ được hiểu theo giờ địa phương như StartTime
+    private static LocalDateTime parseUntil(String value) {
+        try {
+            if (value.length() == 8) {
+                return LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE).atTime(23, 59, 59);
+            }
+            String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+            return LocalDateTime.parse(local, DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("UNTIL must be yyyyMMdd or yyyyMMdd'T'HHmmss");
+        }
+    }
+
+    /**
+     * Canonical text stored in the RecurrenceRule column.
+     */
+    @Override
+    public String toString() {
+        return format(null);
+    }
+
+    /**
+     * RRULE value for an iCalendar feed whose DTSTART carries {@code TZID=zone}: UNTIL must then be
+     * written in UTC (RFC 5545 §3.3.10), so the local UNTIL is converted from {@code zone}.
+     */
+    String toIcs(ZoneId zone) {
+        return format(zone);
+    }
+
+    private String format(ZoneId utcFrom) {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval > 1) {
+            sb.append(";INTERVAL=").append(interval);
+        }
+        if (count > 0) {
+            sb.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+            sb.append(";UNTIL=").append(utcFrom == null ? until.format(format)
+                    : until.atZone(utcFrom).withZoneSameInstant(ZoneOffset.UTC).format(format) + "Z");
+        }
+        if (byDayMask != 0) {
+            sb.append(";BYDAY=");
+            String separator = "";
+            for (int i = 0; i < 7; i++) {
+                if ((byDayMask & (1 << i)) != 0) {
+                    sb.append(separator).append(WEEKDAYS[i]);
+                    separator = ",";
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exceptions column: comma separated ISO dates of skipped occurrences, sorted and de-duplicated.
+     * Returns null when empty.
+     */
+    static String normalizeExceptions(String exceptions) {
+        long[] days = parseExceptions(exceptions);
+        if (days.length == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (long day : days) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(LocalDate.ofEpochDay(day));
+        }
+        return sb.toString();
+    }
+
+    static long[] parseExceptions(String exceptions) {
+        if (exceptions == null || exceptions.isBlank()) {
+            return new long[0];
+        }
+        String[] parts = exceptions.split(",");
+        long[] days = new long[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            if (part.isBlank()) {
+                continue;
+            }
+            try {
+                days[n++] = LocalDate.parse(part.trim()).toEpochDay();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Recurrence exceptions must be yyyy-MM-dd dates, got '" + part.trim() + "'");
+            }
+        }
+        return Arrays.stream(days, 0, n).sorted().distinct().toArray();
+    }
+
+    /**
+     * Upper bound of the last occurrence's end, stored as RecurrenceEnd so the range query can skip
+     * finished series; null when the series never ends.
+     */
+    LocalDateTime seriesEnd(LocalDateTime start, LocalDateTime end) {
+        long durationSeconds = durationSeconds(start, end);
+        if (until != null) {
+            return until.plusSeconds(durationSeconds);
+        }
+        if (count == 0) {
+            return null;
+        }
+        long[] last = {Long.MIN_VALUE};
+        walk(start.toLocalDate().toEpochDay(), start.toLocalTime().toSecondOfDay(), Long.MIN_VALUE, Long.MAX_VALUE, day -> {
+            last[0] = day;
+            return true;
+        });
+        return LocalDate.ofEpochDay(last[0]).atTime(start.toLocalTime()).plusSeconds(durationSeconds);
+    }
+
+    /**
+     * Calls {@code consumer} with the start of each occurrence overlapping [windowStart, windowEnd],
+     * in order, skipping {@code exceptionDays} (sorted epoch days), at most {@code limit} times.
+     */
+    void forEachOccurrence(LocalDateTime start, LocalDateTime end, long[] exceptionDays,
+                           LocalDateTime windowStart, LocalDateTime windowEnd, int limit, Consumer<LocalDateTime> consumer) {
+        long secondOfDay = start.toLocalTime().toSecondOfDay();
+        long duration = durationSeconds(start, end);
+        // Occurrence on day d overlaps the window if d*86400 + sod <= windowEnd and d*86400 + sod + duration >= windowStart
+        long minDay = Math.floorDiv(epochSeconds(windowStart) - duration - secondOfDay + SECONDS_PER_DAY - 1, SECONDS_PER_DAY);
+        long maxDay = Math.floorDiv(epochSeconds(windowEnd) - secondOfDay, SECONDS_PER_DAY);
+        int[] emitted = {0};
+        walk(start.toLocalDate().toEpochDay(), secondOfDay, minDay, maxDay, day -> {
+            if (day < minDay || Arrays.binarySearch(exceptionDays, day) >= 0) {
+                return true;
+            }
+            consumer.accept(LocalDate.ofEpochDay(day).atTime(start.toLocalTime()));
+            return ++emitted[0] < limit;
+        });
+    }
+
+    private interface DaySink {
+        boolean accept(long day);
+    }
+
+    /**
+     * Feeds occurrence days in ascending order up to maxDay, honouring COUNT and UNTIL. Periods that end
+     * before minDay are skipped arithmetically when the occurrence index can be derived without walking.
+     */
+    private void walk(long startDay, long startSecondOfDay, long minDay, long maxDay, DaySink sink) {
+        long lastDay = maxDay;
+        if (until != null) {
+            // Occurrence start must be <= UNTIL: on the UNTIL day itself only if the start time is not later
+            long untilDay = until.toLocalDate().toEpochDay();
+            if (startSecondOfDay > until.toLocalTime().toSecondOfDay()) {
+                untilDay--;
+            }
+            lastDay = Math.min(lastDay, untilDay);
+        }
+        switch (frequency) {
+            case DAILY -> {
+                long k = minDay > startDay ? (minDay - startDay + interval - 1) / interval : 0;
+                for (long day = startDay + k * interval; day <= lastDay; day += interval, k++) {
+                    if ((count > 0 && k >= count) || !sink.accept(day)) {
+                        return;
+                    }
+                }
+            }
+            case WEEKLY -> {
+                int startDow = dayOfWeek(startDay);
+                int mask = byDayMask != 0 ? byDayMask : 1 << startDow;
+                int perWeek = Integer.bitCount(mask);
+                int firstWeek = Integer.bitCount(mask & ~((1 << startDow) - 1));
+                long weekZero = startDay - startDow;
+                long step = 7L * interval;
+                long w = minDay > weekZero ? (minDay - weekZero) / step : 0;
+                long index = w == 0 ? 0 : firstWeek + (w - 1) * perWeek;
+                for (long weekStart = weekZero + w * step; weekStart <= lastDay; weekStart += step) {
+                    for (int dow = 0; dow < 7; dow++) {
+                        if ((mask & (1 << dow)) == 0) {
+                            continue;
+                        }
+                        long day = weekStart + dow;
+                        if (day < startDay) {
+                            continue;
+                        }
+                        if (day > lastDay || (count > 0 && index >= count)) {
+                            return;
+                        }
+                        index++;
+                        if (!sink.accept(day)) {
+                            return;
+                        }
+                    }
+                }
+            }
+            case MONTHLY, YEARLY -> {
+                long[] ymd = civilFromDays(startDay);
+                long startMonth = ymd[0] * 12 + (ymd[1] - 1);
+                int dayOfMonth = (int) ymd[2];
+                long step = frequency == Frequency.YEARLY ? 12L * interval : interval;
+                long k = 0;
+                if (count == 0 && minDay > startDay) {
+                    // Không có COUNT thì không cần đếm các lần trước cửa sổ: nhảy thẳng tới tháng gần minDay
+                    long[] min = civilFromDays(minDay);
+                    long minMonth = min[0] * 12 + (min[1] - 1);
+                    k = Math.max(0, (minMonth - startMonth) / step - 1);
+                }
+                long index = 0;
+                for (long month = startMonth + k * step; ; month += step) {
+                    long year = Math.floorDiv(month, 12);
+                    int monthOfYear = (int) Math.floorMod(month, 12) + 1;
+                    if (dayOfMonth > lengthOfMonth(year, monthOfYear)) {
+                        continue; // 31/4, 29/2 năm không nhuận: bỏ qua theo RFC 5545
+                    }
+                    long day = daysFromCivil(year, monthOfYear, dayOfMonth);
+                    if (day > lastDay || (count > 0 && index >= count)) {
+                        return;
+                    }
+                    index++;
+                    if (!sink.accept(day)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long durationSeconds(LocalDateTime start, LocalDateTime end) {
+        return Math.max(0, epochSeconds(end) - epochSeconds(start));
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * SECONDS_PER_DAY + time.toLocalTime().toSecondOfDay();
+    }
+
+    // 1970-01-01 là Thứ Năm: Thứ Hai = 0
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Howard Hinnant's days_from_civil / civil_from_days: date <-> epoch day without LocalDate objects
+    private static long daysFromCivil(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+
+    private static long[] civilFromDays(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        return new long[]{yoe + era * 400 + (month <= 2 ? 1 : 0), month, day};
+    }
+}
@@ -0,0 +1,214 @@
+package com.hrm.utility.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Working-day engine. Each calendar year is precomputed once into a bitset of working days
+ * (weekends and holidays cleared) plus per-word prefix counts, so counting, "next working day"
+ * and "add N working days" are a few bit operations per year touched.
+ * Year masks are rebuilt lazily whenever the holiday set changes.
+ */
+@Service
+public class WorkingDayCalendar {
+
+    private static final int MIN_YEAR = 1900;
+    private static final int MAX_YEAR = 2200;
+
+    private final HolidayCalendarIndex holidayCalendarIndex;
+    private final Set<DayOfWeek> weekend;
+    // Precomputed years for one version of the holiday set; replaced as a whole when holidays change
+    private volatile YearCache cache = new YearCache(Long.MIN_VALUE);
+
+    public WorkingDayCalendar(HolidayCalendarIndex holidayCalendarIndex,
+                              @Value("${hrm.workdays.weekend:SATURDAY,SUNDAY}") List<DayOfWeek> weekend) {
+        this.holidayCalendarIndex = holidayCalendarIndex;
+        this.weekend = weekend.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weekend);
+        if (this.weekend.size() == DayOfWeek.values().length) {
+            throw new IllegalArgumentException("hrm.workdays.weekend cannot contain every day of the week");
+        }
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return year(date.getYear()).isWorking(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Number of working days in [start, end], both inclusive. 0 when end is before start.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return 0;
+        }
+        if (start.getYear() == end.getYear()) {
+            YearMask mask = year(start.getYear());
+            return mask.rank(end.getDayOfYear() - 1) - mask.rank(start.getDayOfYear() - 2);
+        }
+        YearMask first = year(start.getYear());
+        int count = first.total - first.rank(start.getDayOfYear() - 2);
+        for (int y = start.getYear() + 1; y < end.getYear(); y++) {
+            count += year(y).total;
+        }
+        return count + year(end.getYear()).rank(end.getDayOfYear() - 1);
+    }
+
+    /**
+     * First working day on or after {@code date}.
+     */
+    public LocalDate nextWorkingDay(LocalDate date) {
+        int y = date.getYear();
+        int from = date.getDayOfYear() - 1;
+        while (true) {
+            YearMask mask = year(y);
+            int idx = mask.nextWorking(from);
+            if (idx >= 0) {
+                return mask.firstDay.plusDays(idx);
+            }
+            y++;
+            from = 0;
+        }
+    }
+
+    /**
+     * The date {@code days} working days after {@code date} (e.g. 1 = the next working day after it).
+     * {@code days = 0} returns {@code date} itself.
+     */
+    public LocalDate addWorkingDays(LocalDate date, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        if (days == 0) {
+            return date;
+        }
+        int y = date.getYear();
+        YearMask mask = year(y);
+        // k-th working day of the year we are looking for
+        int k = mask.rank(date.getDayOfYear() - 1) + days;
+        while (k > mask.total) {
+            k -= mask.total;
+            mask = year(++y);
+        }
+        return mask.firstDay.plusDays(mask.select(k));
+    }
+
+    private YearMask year(int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("Year out of supported range: " + year);
+        }
+        YearCache current = cache;
+        long version = holidayCalendarIndex.version();
+        if (current.holidayVersion != version) {
+            current = new YearCache(version);
+            cache = current;
+        }
+        return current.years.computeIfAbsent(year, this::buildYear);
+    }
+
+    private YearMask buildYear(int year) {
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        int length = firstDay.lengthOfYear();
+        long[] bits = new long[(length + 63) >>> 6];
+        DayOfWeek dow = firstDay.getDayOfWeek();
+        for (int i = 0; i < length; i++) {
+            if (!weekend.contains(dow)) {
+                bits[i >>> 6] |= 1L << i;
+            }
+            dow = dow.plus(1);
+        }
+        holidayCalendarIndex.forEachOccurrence(firstDay, LocalDate.of(year, 12, 31), (holiday, date) -> {
+            int i = (int) ChronoUnit.DAYS.between(firstDay, date);
+            bits[i >>> 6] &= ~(1L << i);
+        });
+        return new YearMask(firstDay, length, bits);
+    }
+
+    private static final class YearCache {
+        final long holidayVersion;
+        final Map<Integer, YearMask> years = new ConcurrentHashMap<>();
+
+        YearCache(long holidayVersion) {
+            this.holidayVersion = holidayVersion;
+        }
+    }
+
+    /**
+     * Bitset of the working days of one year; bit i = day-of-year i + 1.
+     */
+    private static final class YearMask {
+        final LocalDate firstDay;
+        final int length;
+        final long[] bits;
+        final int[] rankBefore; // working days in the words before word w
+        final int total;
+
+        YearMask(LocalDate firstDay, int length, long[] bits) {
+            this.firstDay = firstDay;
+            this.length = length;
+            this.bits = bits;
+            this.rankBefore = new int[bits.length];
+            int sum = 0;
+            for (int w = 0; w < bits.length; w++) {
+                rankBefore[w] = sum;
+                sum += Long.bitCount(bits[w]);
+            }
+            this.total = sum;
+        }
+
+        boolean isWorking(int i) {
+            return (bits[i >>> 6] & (1L << i)) != 0;
+        }
+
+        // Working days in [0, i]; i < 0 -> 0
+        int rank(int i) {
+            if (i < 0) {
+                return 0;
+            }
+            if (i >= length - 1) {
+                return total;
+            }
+            int w = i >>> 6;
+            long mask = (i & 63) == 63 ? -1L : (1L << ((i & 63) + 1)) - 1;
+            return rankBefore[w] + Long.bitCount(bits[w] & mask);
+        }
+
+        // First working day index >= from, or -1
+        int nextWorking(int from) {
+            if (from >= length) {
+                return -1;
+            }
+            int w = from >>> 6;
+            long word = bits[w] & (-1L << from);
+            while (true) {
+                if (word != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == bits.length) {
+                    return -1;
+                }
+                word = bits[w];
+            }
+        }
+
+        // Index of the k-th working day (1-based), k in [1, total]
+        int select(int k) {
+            int w = bits.length - 1;
+            while (rankBefore[w] >= k) {
+                w--;
+            }
+            long word = bits[w];
+            for (int r = k - rankBefore[w]; r > 1; r--) {
+                word &= word - 1; // clear lowest set bit
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+    }
+}
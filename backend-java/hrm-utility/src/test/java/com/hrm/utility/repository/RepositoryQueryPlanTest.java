@@ -0,0 +1,330 @@
+package com.hrm.utility.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every query method declared on the repositories against H2 (MySQL mode, schema and
+ * {@code @Index}es generated from the entity mappings), EXPLAINs each SQL statement Hibernate sent
+ * and fails on a full table scan that is not listed in {@link #ALLOWED_SCANS}.
+ * <p>
+ * Bound values are inlined as literals before EXPLAIN, the way Connector/J sends client-side
+ * prepared statements to MySQL, so optional filters such as {@code (:managerId IS NULL OR ...)}
+ * fold away here just as they do on the server.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MySQL;DATABASE_TO_LOWER=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create",
+        // L2 cache does not change the SQL; the JCache provider is not needed for planning
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepositoryQueryPlanTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            LeaveRequestRepository.class,
+            CalendarEventRepository.class,
+            HolidayRepository.class,
+            LeaveDecisionAuditRepository.class);
+
+    /**
+     * Table scans accepted per query method ("Repository.method" -> tables). Every entry says why;
+     * an entry whose scan no longer happens fails the test so the list cannot go stale.
+     */
+    private static final Map<String, Set<String>> ALLOWED_SCANS = Map.ofEntries(
+            // RecurrenceRule IS NOT NULL: MySQL range-scans IX_CalendarEvents_Recurrence (NULL for one-off
+            // events, so only series are read); H2 does not use an index for IS NOT NULL.
+            Map.entry("CalendarEventRepository.findActiveSeriesSince", Set.of("calendarevents")),
+
+            // Holidays is a small table loaded once into HolidayCalendarIndex (and the L2 query cache)
+            Map.entry("HolidayRepository.findAll", Set.of("holidays")),
+            // Month/day matching through MONTH()/DAY() cannot use an index on MySQL either. Not called by
+            // any service (HolidayCalendarIndex answers range lookups in memory); kept for API compatibility.
+            Map.entry("HolidayRepository.findHolidaysInRange", Set.of("holidays")),
+            // Not called by any service; on MySQL 8 a skip scan over IX_Holidays_Recurring_Date serves it
+            Map.entry("HolidayRepository.findByHolidayDateBetween", Set.of("holidays"))
+    );
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.\"?(\\w+)\"?\\.tableScan");
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queriesUseIndexes() throws Exception {
+        Map<String, Set<String>> scans = new TreeMap<>();
+        List<String> failures = new ArrayList<>();
+
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = applicationContext.getBean(repositoryType);
+            Method[] methods = repositoryType.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (method.isSynthetic() || method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = repositoryType.getSimpleName() + "." + method.getName();
+                List<RecordedStatement> statements = record(repository, method);
+                assertTrue(!statements.isEmpty(), name + " issued no SQL");
+                for (RecordedStatement statement : statements) {
+                    String plan = explain(statement.inlined());
+                    Matcher m = TABLE_SCAN.matcher(plan);
+                    while (m.find()) {
+                        String table = m.group(1).toLowerCase();
+                        scans.computeIfAbsent(name, k -> new TreeSet<>()).add(table);
+                        if (!ALLOWED_SCANS.getOrDefault(name, Set.of()).contains(table)) {
+                            failures.add(name + ": full scan of " + table + "\n    " + plan);
+                        }
+                    }
+                }
+            }
+        }
+
+        ALLOWED_SCANS.forEach((name, tables) -> {
+            for (String table : tables) {
+                if (!scans.getOrDefault(name, Set.of()).contains(table)) {
+                    failures.add(name + ": allow-listed scan of " + table + " no longer happens, remove the entry");
+                }
+            }
+        });
+        if (!failures.isEmpty()) {
+            fail(String.join("\n", failures));
+        }
+    }
+
+    private List<RecordedStatement> record(Object repository, Method method) throws Exception {
+        Object[] args = new Object[method.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = sampleValue(method.getParameterTypes()[i], method.getGenericParameterTypes()[i]);
+        }
+        RecordingDataSource.start();
+        try {
+            Object result = method.invoke(repository, args);
+            if (result instanceof Stream<?> stream) {
+                try (stream) {
+                    stream.forEach(row -> { });
+                }
+            }
+            return RecordingDataSource.stop();
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            RecordingDataSource.stop();
+            throw e;
+        }
+    }
+
+    private static Object sampleValue(Class<?> type, Type genericType) {
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == String.class) {
+            return "Pending";
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.of(2026, 1, 1);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.of(2026, 1, 1, 0, 0);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType p) {
+            Class<?> element = (Class<?>) p.getActualTypeArguments()[0];
+            return List.of(sampleValue(element, element), sampleValue(element, element));
+        }
+        throw new IllegalArgumentException("No sample value for parameter type " + genericType);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.query("EXPLAIN " + sql, (rs, i) -> rs.getString(1)))
+                .replaceAll("\\s+", " ");
+    }
+
+    // ---- Ghi lại SQL + giá trị bind của từng PreparedStatement ----
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+                            ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    record RecordedStatement(String sql, Map<Integer, Object> parameters) {
+
+        // Thay từng '?' (ngoài chuỗi '...') bằng literal của giá trị đã bind
+        String inlined() {
+            StringBuilder out = new StringBuilder(sql.length() + 64);
+            boolean quoted = false;
+            int index = 0;
+            for (int i = 0; i < sql.length(); i++) {
+                char c = sql.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                }
+                if (c == '?' && !quoted) {
+                    out.append(literal(parameters.get(++index)));
+                } else {
+                    out.append(c);
+                }
+            }
+            return out.toString();
+        }
+
+        private static String literal(Object value) {
+            if (value == null) {
+                return "NULL";
+            }
+            if (value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+            if (value instanceof java.sql.Date || value instanceof LocalDate) {
+                return "DATE '" + value + "'";
+            }
+            if (value instanceof java.sql.Timestamp ts) {
+                return "TIMESTAMP '" + ts.toLocalDateTime().toLocalDate() + " " + ts.toLocalDateTime().toLocalTime() + "'";
+            }
+            if (value instanceof LocalDateTime ldt) {
+                return "TIMESTAMP '" + ldt.toLocalDate() + " " + ldt.toLocalTime() + "'";
+            }
+            if (value instanceof OffsetDateTime odt) {
+                return "TIMESTAMP '" + odt.toLocalDate() + " " + odt.toLocalTime() + "'";
+            }
+            if (value instanceof LocalTime) {
+                return "TIME '" + value + "'";
+            }
+            return "'" + value.toString().replace("'", "''") + "'";
+        }
+    }
+
+    static class RecordingDataSource extends DelegatingDataSource {
+
+        private static final ThreadLocal<List<RecordedStatement>> RECORDED = new ThreadLocal<>();
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static List<RecordedStatement> stop() {
+            List<RecordedStatement> recorded = RECORDED.get();
+            RECORDED.remove();
+            return recorded;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection connection) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String sql) {
+                    return recording((PreparedStatement) result, sql);
+                }
+                return result;
+            };
+            return (Connection) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new HashMap<>();
+            InvocationHandler handler = (proxy, method, args) -> {
+                String name = method.getName();
+                // Integer.MIN_VALUE là tín hiệu stream từng dòng của MySQL Connector/J; H2 từ chối fetch size âm
+                if (name.equals("setFetchSize") && Integer.valueOf(Integer.MIN_VALUE).equals(args[0])) {
+                    return null;
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer position) {
+                    parameters.put(position, name.equals("setNull") ? null : args[1]);
+                } else if (name.startsWith("execute") && RECORDED.get() != null) {
+                    RECORDED.get().add(new RecordedStatement(sql, new LinkedHashMap<>(parameters)));
+                }
+                return invoke(statement, method, args);
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (java.lang.reflect.InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.hrm.utility.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the epoch-day arithmetic of {@link RecurrenceRule} against a naive expansion that steps
+ * {@link LocalDate}s from the series start: weekly week-index skipping, the monthly/yearly jump to
+ * the window, UNTIL on the last day, COUNT with BYDAY and skipped 31st / 29 Feb dates.
+ */
+class RecurrenceRuleTest {
+
+    private static final String[] WEEKDAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final int LIMIT = 2000;
+
+    @Test
+    void monthlyOnThe31stSkipsShortMonths() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 31, 9, 0);
+        assertEquals(List.of(
+                        LocalDateTime.of(2026, 5, 31, 9, 0),
+                        LocalDateTime.of(2026, 7, 31, 9, 0),
+                        LocalDateTime.of(2026, 8, 31, 9, 0)),
+                expand("FREQ=MONTHLY", start, start.plusHours(1), null,
+                        LocalDateTime.of(2026, 4, 15, 0, 0), LocalDateTime.of(2026, 9, 15, 0, 0)));
+    }
+
+    @Test
+    void yearlyOn29FebruaryOnlyInLeapYears() {
+        LocalDateTime start = LocalDateTime.of(2024, 2, 29, 0, 0);
+        assertEquals(List.of(LocalDateTime.of(2028, 2, 29, 0, 0), LocalDateTime.of(2032, 2, 29, 0, 0)),
+                expand("FREQ=YEARLY", start, start.plusDays(1), null,
+                        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2033, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void untilEarlierThanStartTimeExcludesTheUntilDay() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 18, 0);
+        List<LocalDateTime> occurrences = expand("FREQ=DAILY;UNTIL=20260305T170000", start, start.plusHours(1), null,
+                start, LocalDateTime.of(2026, 3, 31, 0, 0));
+        assertEquals(LocalDateTime.of(2026, 3, 4, 18, 0), occurrences.get(occurrences.size() - 1));
+    }
+
+    @Test
+    void countWithByDayCountsFromTheStartDay() {
+        // Starts on a Wednesday: the first week yields only WE and FR, INTERVAL=2 skips the week of 9 March
+        LocalDateTime start = LocalDateTime.of(2026, 3, 4, 9, 0);
+        assertEquals(List.of(
+                        LocalDateTime.of(2026, 3, 4, 9, 0),
+                        LocalDateTime.of(2026, 3, 6, 9, 0),
+                        LocalDateTime.of(2026, 3, 16, 9, 0),
+                        LocalDateTime.of(2026, 3, 18, 9, 0),
+                        LocalDateTime.of(2026, 3, 20, 9, 0)),
+                expand("FREQ=WEEKLY;INTERVAL=2;COUNT=5;BYDAY=MO,WE,FR", start, start.plusHours(1), null,
+                        LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 12, 31, 0, 0)));
+    }
+
+    @Test
+    void neverEndingSeriesHasNoSeriesEnd() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        assertNull(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO").seriesEnd(start, start.plusHours(1)));
+    }
+
+    @Test
+    void matchesNaiveExpansionForRandomRulesAndWindows() {
+        Random random = new Random(20260317);
+        for (int i = 0; i < 3000; i++) {
+            String rule = randomRule(random);
+            LocalDate startDate = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3000));
+            if (random.nextInt(4) == 0) {
+                // Cuối tháng để thử các ngày không tồn tại (31/4, 29/2)
+                startDate = startDate.withDayOfMonth(Math.min(28 + random.nextInt(4), startDate.lengthOfMonth()));
+            }
+            LocalDateTime start = startDate.atTime(pick(random, LocalTime.MIDNIGHT, LocalTime.of(9, 30), LocalTime.of(23, 0)));
+            LocalDateTime end = start.plus(pick(random, Duration.ZERO, Duration.ofMinutes(30), Duration.ofHours(25)));
+            if (random.nextBoolean() && !rule.contains("COUNT")) {
+                rule += ";UNTIL=" + start.plusDays(random.nextInt(900)).plusMinutes(random.nextInt(1440) - 720)
+                        .format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+            }
+
+            // Cửa sổ thường bắt đầu giữa chuỗi, đôi khi trước lần đầu
+            LocalDateTime windowStart = start.plusDays(random.nextInt(1600) - 100).plusMinutes(random.nextInt(1440));
+            LocalDateTime windowEnd = windowStart.plusDays(random.nextInt(120)).plusMinutes(random.nextInt(1440));
+
+            List<LocalDateTime> all = naive(rule, start, windowEnd.toLocalDate().plusDays(1));
+            String exceptions = null;
+            if (!all.isEmpty() && random.nextBoolean()) {
+                Set<String> skipped = new TreeSet<>();
+                for (int e = 0; e < 3; e++) {
+                    skipped.add(all.get(random.nextInt(all.size())).toLocalDate().toString());
+                }
+                exceptions = String.join(",", skipped);
+            }
+            long duration = Duration.between(start, end).getSeconds();
+            List<LocalDateTime> expected = new ArrayList<>();
+            for (LocalDateTime occurrence : all) {
+                boolean skipped = exceptions != null && exceptions.contains(occurrence.toLocalDate().toString());
+                if (!skipped && !occurrence.isAfter(windowEnd) && !occurrence.plusSeconds(duration).isBefore(windowStart)
+                        && expected.size() < LIMIT) {
+                    expected.add(occurrence);
+                }
+            }
+
+            String context = rule + " start=" + start + " end=" + end + " window=" + windowStart + ".." + windowEnd
+                    + " exceptions=" + exceptions;
+            assertEquals(expected, expand(rule, start, end, exceptions, windowStart, windowEnd), context);
+
+            RecurrenceRule parsed = RecurrenceRule.parse(rule);
+            if (parsed.count > 0) {
+                List<LocalDateTime> series = naive(rule, start, LocalDate.MAX);
+                assertEquals(series.get(series.size() - 1).plusSeconds(duration), parsed.seriesEnd(start, end), context);
+            }
+        }
+    }
+
+    private static List<LocalDateTime> expand(String rule, LocalDateTime start, LocalDateTime end, String exceptions,
+                                              LocalDateTime windowStart, LocalDateTime windowEnd) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        RecurrenceRule.parse(rule).forEachOccurrence(start, end, RecurrenceRule.parseExceptions(exceptions),
+                windowStart, windowEnd, LIMIT, occurrences::add);
+        return occurrences;
+    }
+
+    /**
+     * Occurrence starts of the series up to (exclusive) {@code stopDate}, stepping dates one by one.
+     */
+    private static List<LocalDateTime> naive(String text, LocalDateTime start, LocalDate stopDate) {
+        RecurrenceRule rule = RecurrenceRule.parse(text);
+        LocalDate startDate = start.toLocalDate();
+        List<LocalDateTime> out = new ArrayList<>();
+        for (long k = 0; ; k++) {
+            LocalDate date;
+            switch (rule.frequency) {
+                case DAILY -> date = startDate.plusDays(k);
+                case WEEKLY -> date = startDate.plusDays(k);
+                default -> {
+                    long months = k * (rule.frequency == RecurrenceRule.Frequency.YEARLY ? 12L : 1L);
+                    YearMonth month = YearMonth.from(startDate).plusMonths(months);
+                    if (month.getYear() > 2200) {
+                        return out;
+                    }
+                    if (startDate.getDayOfMonth() > month.lengthOfMonth()) {
+                        continue;
+                    }
+                    date = month.atDay(startDate.getDayOfMonth());
+                }
+            }
+            if (!date.isBefore(stopDate) || date.getYear() > 2200) {
+                return out;
+            }
+            if (!matches(rule, startDate, date, k)) {
+                continue;
+            }
+            LocalDateTime occurrence = date.atTime(start.toLocalTime());
+            if ((rule.until != null && occurrence.isAfter(rule.until)) || (rule.count > 0 && out.size() >= rule.count)) {
+                return out;
+            }
+            out.add(occurrence);
+        }
+    }
+
+    private static boolean matches(RecurrenceRule rule, LocalDate startDate, LocalDate date, long k) {
+        return switch (rule.frequency) {
+            case DAILY -> k % rule.interval == 0;
+            case WEEKLY -> {
+                LocalDate firstMonday = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                long week = ChronoUnit.WEEKS.between(firstMonday, date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+                int mask = rule.byDayMask != 0 ? rule.byDayMask : 1 << (startDate.getDayOfWeek().getValue() - 1);
+                yield week % rule.interval == 0 && (mask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+            }
+            default -> k % rule.interval == 0;
+        };
+    }
+
+    private static String randomRule(Random random) {
+        RecurrenceRule.Frequency frequency = RecurrenceRule.Frequency.values()[random.nextInt(4)];
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (random.nextBoolean()) {
+            rule.append(";INTERVAL=").append(1 + random.nextInt(3));
+        }
+        if (random.nextInt(3) == 0) {
+            rule.append(";COUNT=").append(1 + random.nextInt(40));
+        }
+        if (frequency == RecurrenceRule.Frequency.WEEKLY && random.nextBoolean()) {
+            List<String> days = new ArrayList<>();
+            for (String day : WEEKDAYS) {
+                if (random.nextInt(3) == 0) {
+                    days.add(day);
+                }
+            }
+            if (!days.isEmpty()) {
+                rule.append(";BYDAY=").append(String.join(",", days));
+            }
+        }
+        return rule.toString();
+    }
+
+    @SafeVarargs
+    private static <T> T pick(Random random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -157,7 +157,12 @@ export default function UnifiedCalendarPage() {
     const handleDelete = async () => {
         if (!selectedEvent) return;
         try {
-            await utilityApi.deleteCalendarEvent(selectedEvent.eventID)
+            // Occurrences of a recurring event have no eventID of their own: skip just that date
+            if (selectedEvent.seriesId) {
+                await utilityApi.skipCalendarOccurrence(selectedEvent.seriesId, selectedEvent.occurrenceDate)
+            } else {
+                await utilityApi.deleteCalendarEvent(selectedEvent.eventID)
+            }
             toast.success("Event deleted")
             setShowModal(false)
             loadData()
@@ -243,7 +248,7 @@ export default function UnifiedCalendarPage() {
                                 <div className="space-y-1">
                                     {dayEvents.map(event => (
                                         <div
-                                            key={event.eventID}
+                                            key={event.eventID ?? `${event.seriesId}-${event.occurrenceDate}`}
                                             onClick={(e) => handleEventClick(e, event)}
                                             style={{ backgroundColor: event.color }}
                                             className="px-2 py-1 rounded shadow-sm text-[11px] font-bold truncate transition-all hover:brightness-110 hover:translate-x-1 text-white border-l-2 border-white/20"
@@ -27,6 +27,14 @@ export const utilityApi = {
         if (!response.ok) throw new Error("Failed to delete event");
     },
 
+    // Skip one occurrence of a recurring event (the rest of the series is kept)
+    skipCalendarOccurrence: async (seriesId: number, date: string) => {
+        const response = await fetch(`${JAVA_API_BASE_URL}/calendar/events/${seriesId}/exceptions?date=${date}`, {
+            method: "POST"
+        });
+        if (!response.ok) throw new Error("Failed to delete occurrence");
+    },
+
     // Holidays
     getHolidays: async () => {
         const response = await axios.get(`${JAVA_API_BASE_URL}/holidays`);
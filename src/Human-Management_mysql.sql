@@ -171,10 +171,16 @@ CREATE TABLE LeaveRequests (
     AttachmentPath VARCHAR(255) NULL,
     ApprovalNote TEXT NULL,
     ApprovedDate DATETIME NULL,
+    Version INT NOT NULL DEFAULT 0,
+    DecisionKey VARCHAR(64) NULL,
     
     CONSTRAINT FK_LeaveRequests_Employee FOREIGN KEY (EmployeeID) REFERENCES Employees(EmployeeID),
     CONSTRAINT FK_LeaveRequests_LeaveType FOREIGN KEY (LeaveTypeID) REFERENCES LeaveTypes(LeaveTypeID),
-    CONSTRAINT CHK_LeaveRequest_Status CHECK (Status IN ('Pending', 'Approved', 'Rejected', 'Cancelled', 'Draft'))
+    CONSTRAINT CHK_LeaveRequest_Status CHECK (Status IN ('Pending', 'Approved', 'Rejected', 'Cancelled', 'Draft')),
+    INDEX IX_LeaveRequests_Manager_Status_Type (ManagerID, Status, LeaveTypeID, RequestedDate),
+    INDEX IX_LeaveRequests_Manager_Requested (ManagerID, RequestedDate),
+    INDEX IX_LeaveRequests_StartDate (StartDate),
+    INDEX IX_LeaveRequests_Status_EndDate (Status, EndDate)
 );
 
 CREATE TABLE LeaveRequestHistory (
@@ -189,6 +195,20 @@ CREATE TABLE LeaveRequestHistory (
     CONSTRAINT FK_LeaveHistory_Employee FOREIGN KEY (ChangedByEmployeeID) REFERENCES Employees(EmployeeID)
 );
 
+-- Nhật ký duyệt/từ chối (append-only), ghi theo lô bởi hrm-utility
+CREATE TABLE LeaveDecisionAudit (
+    AuditID BIGINT PRIMARY KEY AUTO_INCREMENT,
+    LeaveRequestID INT NOT NULL,
+    PreviousStatus VARCHAR(20) NOT NULL,
+    NewStatus VARCHAR(20) NOT NULL,
+    DecidedBy INT NULL,
+    Note TEXT NULL,
+    DecisionKey VARCHAR(64) NULL,
+    DecidedAt DATETIME NOT NULL,
+    INDEX IX_LeaveDecisionAudit_Request (LeaveRequestID),
+    INDEX IX_LeaveDecisionAudit_DecidedBy_DecidedAt (DecidedBy, DecidedAt)
+);
+
 CREATE TABLE WorkHandovers (
     HandoverID INT PRIMARY KEY AUTO_INCREMENT,
     LeaveRequestID INT NOT NULL,